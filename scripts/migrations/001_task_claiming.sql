@@ -0,0 +1,9 @@
+-- 任务原子认领：新增认领节点与租约字段，以及认领查询使用的组合索引
+-- 需要 MySQL 8.0+（认领查询使用 SELECT ... FOR UPDATE SKIP LOCKED）
+USE sec13f;
+
+ALTER TABLE tasks
+    ADD COLUMN owner_id VARCHAR(100) NULL AFTER end_time,
+    ADD COLUMN lease_expire_time TIMESTAMP NULL AFTER owner_id,
+    ADD INDEX idx_status_next_execute_time (status, next_execute_time),
+    ADD INDEX idx_status_lease_expire_time (status, lease_expire_time);
@@ -0,0 +1,5 @@
+-- 按任务类型认领：认领查询按 task_type + status 过滤
+USE sec13f;
+
+ALTER TABLE tasks
+    ADD INDEX idx_task_type_status_next_execute_time (task_type, status, next_execute_time);
@@ -0,0 +1,55 @@
+-- 任务去重：同一去重键（任务类型+CIK/filingId）同时只能有一个未结束任务
+-- active_dedup_key 为生成列，任务结束（COMPLETED/FAILED）后变为NULL，不再参与唯一约束
+USE sec13f;
+
+ALTER TABLE tasks
+    ADD COLUMN dedup_key VARCHAR(200) NULL AFTER task_parameters,
+    ADD COLUMN active_dedup_key VARCHAR(200) GENERATED ALWAYS AS (
+        CASE WHEN status IN ('PENDING', 'RETRY', 'RUNNING') THEN dedup_key END
+    ) STORED AFTER dedup_key;
+
+-- 回填已有任务的去重键，规则与 TaskParameters.toDedupKey 完全一致：
+-- CIK去掉首尾空白和控制字符（同String.trim），再去掉前导0但至少保留一位，空串不去重；
+-- filingId按getLong解析：JSON数值取整数部分，字符串须为整数，输出不带前导0和正号；
+-- 参数为JSON null或不是合法JSON时不去重
+UPDATE tasks
+SET dedup_key = CONCAT(task_type, ':',
+    NULLIF(REGEXP_REPLACE(
+        REGEXP_REPLACE(JSON_UNQUOTE(JSON_EXTRACT(task_parameters, '$.cik')), '^[\\x00-\\x20]+|[\\x00-\\x20]+$', ''),
+        '^0+(?=.)', ''), ''))
+WHERE task_type IN ('SCRAP_HOLDING', 'SEC_SCRAPING', 'SCRAP_FINANCIAL_REPORT')
+  AND JSON_VALID(task_parameters)
+  AND JSON_TYPE(JSON_EXTRACT(task_parameters, '$.cik')) <> 'NULL';
+
+UPDATE tasks
+SET dedup_key = CONCAT(task_type, ':',
+    CASE JSON_TYPE(JSON_EXTRACT(task_parameters, '$.filingId'))
+        WHEN 'INTEGER' THEN CAST(JSON_UNQUOTE(JSON_EXTRACT(task_parameters, '$.filingId')) AS SIGNED)
+        WHEN 'UNSIGNED INTEGER' THEN CAST(JSON_UNQUOTE(JSON_EXTRACT(task_parameters, '$.filingId')) AS SIGNED)
+        WHEN 'DOUBLE' THEN CAST(TRUNCATE(JSON_UNQUOTE(JSON_EXTRACT(task_parameters, '$.filingId')), 0) AS SIGNED)
+        WHEN 'DECIMAL' THEN CAST(TRUNCATE(JSON_UNQUOTE(JSON_EXTRACT(task_parameters, '$.filingId')), 0) AS SIGNED)
+        WHEN 'STRING' THEN
+            CASE WHEN JSON_UNQUOTE(JSON_EXTRACT(task_parameters, '$.filingId')) REGEXP '^[+-]?[0-9]+$'
+                 THEN CAST(JSON_UNQUOTE(JSON_EXTRACT(task_parameters, '$.filingId')) AS SIGNED)
+            END
+    END)
+WHERE task_type = 'HOLDING_MERGE'
+  AND JSON_VALID(task_parameters)
+  AND JSON_EXTRACT(task_parameters, '$.filingId') IS NOT NULL;
+
+-- 已存在的重复未结束任务：保留最早的一个，其余标记为失败
+UPDATE tasks t
+JOIN (
+    SELECT dedup_key, MIN(id) AS keep_id
+    FROM tasks
+    WHERE status IN ('PENDING', 'RETRY', 'RUNNING') AND dedup_key IS NOT NULL
+    GROUP BY dedup_key
+    HAVING COUNT(*) > 1
+) d ON t.dedup_key = d.dedup_key AND t.id <> d.keep_id
+SET t.status = 'FAILED',
+    t.message = '重复任务，已合并到较早的任务',
+    t.end_time = CURRENT_TIMESTAMP
+WHERE t.status IN ('PENDING', 'RETRY', 'RUNNING');
+
+ALTER TABLE tasks
+    ADD UNIQUE KEY uk_active_dedup_key (active_dedup_key);
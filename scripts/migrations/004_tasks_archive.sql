@@ -0,0 +1,31 @@
+-- 任务归档：已结束（COMPLETED/FAILED）超过保留期的任务定期移入tasks_archive
+USE sec13f;
+
+CREATE TABLE IF NOT EXISTS tasks_archive (
+    id BIGINT PRIMARY KEY,
+    task_id VARCHAR(100) NOT NULL,
+    task_type VARCHAR(50) NOT NULL,
+    status VARCHAR(50) NOT NULL,
+    message TEXT,
+    task_parameters TEXT,
+    dedup_key VARCHAR(200) NULL,
+    retry_times INT DEFAULT 0,
+    start_time TIMESTAMP NULL,
+    next_execute_time TIMESTAMP NULL,
+    end_time TIMESTAMP NULL,
+    owner_id VARCHAR(100) NULL,
+    lease_expire_time TIMESTAMP NULL,
+    created_at TIMESTAMP NULL,
+    updated_at TIMESTAMP NULL,
+    archived_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    UNIQUE KEY uk_task_id (task_id),
+    INDEX idx_task_type (task_type),
+    INDEX idx_created_at (created_at)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- 归档按 (status, end_time) 查找，历史数据中缺少end_time的已结束任务用updated_at补齐
+UPDATE tasks SET end_time = updated_at
+WHERE status IN ('COMPLETED', 'FAILED') AND end_time IS NULL;
+
+ALTER TABLE tasks
+    ADD INDEX idx_status_end_time (status, end_time);
@@ -0,0 +1,6 @@
+-- 任务列表与统计：按类型+状态过滤的游标分页、按状态+类型分组统计均只扫描索引
+USE sec13f;
+
+ALTER TABLE tasks
+    ADD INDEX idx_status_task_type (status, task_type),
+    ADD INDEX idx_task_type_status (task_type, status);
@@ -0,0 +1,21 @@
+-- 任务依赖：下游任务以WAITING状态创建，上游任务全部完成后转为PENDING并立即派发
+USE sec13f;
+
+ALTER TABLE tasks
+    ADD COLUMN pending_dependencies INT NOT NULL DEFAULT 0 AFTER active_dedup_key;
+
+-- WAITING任务同样属于未结束任务，参与去重
+ALTER TABLE tasks
+    MODIFY COLUMN active_dedup_key VARCHAR(200) GENERATED ALWAYS AS (
+        CASE WHEN status IN ('PENDING', 'WAITING', 'RETRY', 'RUNNING') THEN dedup_key END
+    ) STORED;
+
+CREATE TABLE IF NOT EXISTS task_dependencies (
+    id BIGINT PRIMARY KEY AUTO_INCREMENT,
+    task_id VARCHAR(100) NOT NULL,
+    depends_on_task_id VARCHAR(100) NOT NULL,
+    resolved TINYINT(1) NOT NULL DEFAULT 0,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    UNIQUE KEY uk_task_depends_on (task_id, depends_on_task_id),
+    INDEX idx_depends_on_resolved (depends_on_task_id, resolved)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
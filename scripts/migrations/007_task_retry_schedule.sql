@@ -0,0 +1,9 @@
+-- 任务重试调度：所有待认领任务都有执行时间，认领条件完全走(task_type, status, next_execute_time)索引
+USE sec13f;
+
+ALTER TABLE tasks
+    MODIFY COLUMN next_execute_time TIMESTAMP NULL DEFAULT CURRENT_TIMESTAMP;
+
+-- 历史任务创建时未设置执行时间，以创建时间补齐
+UPDATE tasks SET next_execute_time = created_at
+WHERE status IN ('PENDING', 'WAITING', 'RETRY') AND next_execute_time IS NULL;
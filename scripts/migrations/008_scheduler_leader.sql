@@ -0,0 +1,9 @@
+-- 调度主节点选举：多节点部署时只有持有租约的节点执行定时调度（回收、归档、定时抓取等），所有节点都执行已认领的任务
+USE sec13f;
+
+CREATE TABLE IF NOT EXISTS scheduler_leader (
+    name VARCHAR(50) PRIMARY KEY,
+    owner_id VARCHAR(100) NOT NULL,
+    lease_expire_time TIMESTAMP NOT NULL,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
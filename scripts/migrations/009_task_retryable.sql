@@ -0,0 +1,7 @@
+-- 失败任务是否允许定时重试：永久失败（参数错误、SEC返回400/404/410等）的任务写回时标记为0，定时重试跳过
+-- (dedup_key, id) 索引供定时重试按去重键查找更新的任务
+USE sec13f;
+
+ALTER TABLE tasks
+    ADD COLUMN retryable TINYINT(1) NOT NULL DEFAULT 1 AFTER retry_times,
+    ADD INDEX idx_dedup_key_id (dedup_key, id);
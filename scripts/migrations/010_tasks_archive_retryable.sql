@@ -0,0 +1,7 @@
+-- 归档表补齐retryable和pending_dependencies：归档后的失败任务保留永久失败标记，查询归档任务状态时依赖信息不丢失
+-- 此前已归档的任务没有记录这两列，按默认值（可重试、无未完成依赖）补齐
+USE sec13f;
+
+ALTER TABLE tasks_archive
+    ADD COLUMN pending_dependencies INT NOT NULL DEFAULT 0 AFTER dedup_key,
+    ADD COLUMN retryable TINYINT(1) NOT NULL DEFAULT 1 AFTER retry_times;
@@ -0,0 +1,95 @@
+package com.company.sec13f.benchmark;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 基准测试语料
+ *
+ * 小/中规模文档以资源文件形式检入 src/main/resources/corpus，
+ * 20k行的大文档在启动时由中等规模文档的infoTable行循环拼接生成，避免检入数MB的文件。
+ *
+ * 以 synthetic- 开头的文档是合成数据：同一组50个发行人重复排列（中等规模infoTable为50个×10次，
+ * HTML表格为50个×4次），生成文档沿用这50个发行人。真实申报中不同CUSIP的比例高得多，
+ * 这些文档上的发行人字典命中率和分配量偏乐观，只适合比较同一文档上的前后变化。
+ */
+public final class Corpus {
+
+    public static final String INFO_TABLE_SMALL = "infotable-small.xml";
+    public static final String SYNTHETIC_INFO_TABLE_MEDIUM = "synthetic-infotable-medium.xml";
+    public static final String SYNTHETIC_SUBMISSION_MEDIUM = "synthetic-submission-medium.txt";
+    public static final String SYNTHETIC_FORM_13F_HTML_TABLE = "synthetic-form13f-table.html";
+
+    /** 生成文档使用的名称前缀，如 "generated-20000" 表示由合成中等规模文档拼接的20000行infoTable */
+    public static final String GENERATED_PREFIX = "generated-";
+
+    private static final String INFO_TABLE_START = "<infoTable>";
+    private static final String INFO_TABLE_END = "</infoTable>";
+
+    private Corpus() {
+    }
+
+    /**
+     * 按名称加载语料，支持 generated-N 形式的生成文档
+     */
+    public static String load(String name) {
+        if (name.startsWith(GENERATED_PREFIX)) {
+            return generateInfoTable(Integer.parseInt(name.substring(GENERATED_PREFIX.length())));
+        }
+        String path = "/corpus/" + name;
+        try (InputStream in = Corpus.class.getResourceAsStream(path)) {
+            if (in == null) {
+                throw new IllegalArgumentException("Corpus resource not found: " + path);
+            }
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+            return new String(out.toByteArray(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to read corpus resource: " + path, e);
+        }
+    }
+
+    /**
+     * 检查语料解析出的行数，为0时说明文档不是解析器支持的格式，基准结果没有意义
+     */
+    public static void requireRows(String name, int rows) {
+        if (rows <= 0) {
+            throw new IllegalStateException("Corpus document parsed to 0 rows: " + name);
+        }
+    }
+
+    /**
+     * 以中等规模文档为模板生成指定行数的informationTable XML
+     */
+    public static String generateInfoTable(int rows) {
+        String template = load(SYNTHETIC_INFO_TABLE_MEDIUM);
+        int firstRow = template.indexOf(INFO_TABLE_START);
+        int lastRowEnd = template.lastIndexOf(INFO_TABLE_END) + INFO_TABLE_END.length();
+        if (firstRow < 0 || lastRowEnd < INFO_TABLE_END.length()) {
+            throw new IllegalStateException("Template has no infoTable rows: " + SYNTHETIC_INFO_TABLE_MEDIUM);
+        }
+
+        StringBuilder xml = new StringBuilder(template.length() / 500 * rows + 1024);
+        xml.append(template, 0, firstRow);
+
+        int rowStart = firstRow;
+        for (int i = 0; i < rows; i++) {
+            int rowEnd = template.indexOf(INFO_TABLE_END, rowStart) + INFO_TABLE_END.length();
+            xml.append(template, rowStart, rowEnd).append("\n  ");
+            rowStart = template.indexOf(INFO_TABLE_START, rowEnd);
+            if (rowStart < 0 || rowStart > lastRowEnd) {
+                rowStart = firstRow;
+            }
+        }
+
+        xml.setLength(xml.length() - 2);
+        xml.append(template, lastRowEnd, template.length());
+        return xml.toString();
+    }
+}
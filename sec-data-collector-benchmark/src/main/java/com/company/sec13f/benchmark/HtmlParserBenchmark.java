@@ -0,0 +1,48 @@
+package com.company.sec13f.benchmark;
+
+import com.company.sec13f.repository.model.Filing;
+import com.company.sec13f.service.parser.HTML13FParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * HTML13FParser.parseHTML13FContent 吞吐量基准
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HtmlParserBenchmark {
+
+    @Param({Corpus.SYNTHETIC_FORM_13F_HTML_TABLE})
+    public String document;
+
+    private String content;
+
+    @Setup
+    public void setUp() {
+        content = Corpus.load(document);
+        Corpus.requireRows(document,
+                HTML13FParser.parseHTML13FContent(content, "0001524258-23-000042", "0001524258").getHoldingCount());
+    }
+
+    @Benchmark
+    public Filing parseHTML13FContent(RowCounter counter) {
+        Filing filing = HTML13FParser.parseHTML13FContent(content, "0001524258-23-000042", "0001524258");
+        counter.rows += filing.getHoldingCount();
+        return filing;
+    }
+}
@@ -0,0 +1,64 @@
+package com.company.sec13f.benchmark;
+
+import com.company.sec13f.repository.model.Filing;
+import com.company.sec13f.service.parser.Enhanced13FXMLParser;
+import com.company.sec13f.service.scraper.SubmissionDocumentIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.nio.CharBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 提交文件(.txt)分段提取基准
+ * 与RealSECScraper.get13FDetails的处理顺序一致：建立分段索引，读取头部字段，物化INFORMATION TABLE的XML
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SubmissionExtractionBenchmark {
+
+    private String content;
+
+    @Setup
+    public void setUp() {
+        content = Corpus.load(Corpus.SYNTHETIC_SUBMISSION_MEDIUM);
+        Corpus.requireRows(Corpus.SYNTHETIC_SUBMISSION_MEDIUM, extractAndParse(new RowCounter()).getHoldingCount());
+    }
+
+    @Benchmark
+    public void extractSections(Blackhole blackhole) {
+        SubmissionDocumentIndex index = SubmissionDocumentIndex.build(content);
+        blackhole.consume(index.headerValue("EFFECTIVENESS DATE"));
+        blackhole.consume(index.headerValue("CONFORMED PERIOD OF REPORT"));
+        blackhole.consume(index.secDocumentFileName());
+        blackhole.consume(informationTableXml(index));
+    }
+
+    @Benchmark
+    public Filing extractAndParse(RowCounter counter) {
+        SubmissionDocumentIndex index = SubmissionDocumentIndex.build(content);
+        Filing filing = Enhanced13FXMLParser.parse13FContent(informationTableXml(index),
+                "0000950123-24-002518", "0001234567");
+        counter.rows += filing.getHoldingCount();
+        return filing;
+    }
+
+    private static String informationTableXml(SubmissionDocumentIndex index) {
+        SubmissionDocumentIndex.Section infoTable = index.findDocument("INFORMATION TABLE");
+        CharBuffer xml = infoTable != null ? infoTable.xml() : null;
+        return xml != null ? xml.toString().trim() : null;
+    }
+}
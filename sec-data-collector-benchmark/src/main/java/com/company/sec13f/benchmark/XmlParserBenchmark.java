@@ -0,0 +1,57 @@
+package com.company.sec13f.benchmark;
+
+import com.company.sec13f.repository.model.Filing;
+import com.company.sec13f.service.parser.Enhanced13FXMLParser;
+import com.company.sec13f.service.util.StreamingHoldingValidator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Enhanced13FXMLParser.parse13FContent 吞吐量基准
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class XmlParserBenchmark {
+
+    @Param({Corpus.INFO_TABLE_SMALL, Corpus.SYNTHETIC_INFO_TABLE_MEDIUM, Corpus.GENERATED_PREFIX + "20000"})
+    public String document;
+
+    private String content;
+
+    @Setup
+    public void setUp() {
+        content = Corpus.load(document);
+        Corpus.requireRows(document,
+                Enhanced13FXMLParser.parse13FContent(content, "0000950123-24-002518", "0001234567").getHoldingCount());
+    }
+
+    @Benchmark
+    public Filing parse13FContent(RowCounter counter) {
+        Filing filing = Enhanced13FXMLParser.parse13FContent(content, "0000950123-24-002518", "0001234567");
+        counter.rows += filing.getHoldingCount();
+        return filing;
+    }
+
+    @Benchmark
+    public Filing parse13FContentValidated(RowCounter counter) {
+        Filing filing = Enhanced13FXMLParser.parse13FContent(content, "0000950123-24-002518", "0001234567",
+                new StreamingHoldingValidator());
+        counter.rows += filing.getHoldingCount();
+        return filing;
+    }
+}
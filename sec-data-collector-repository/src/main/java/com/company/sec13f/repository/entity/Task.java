@@ -16,10 +16,15 @@ public class Task {
     private TaskStatus status;            // 任务状态枚举
     private String message;               // 当前任务执行结果信息
     private String taskParameters;        // 任务参数，JSON格式存储
+    private String dedupKey;              // 去重键（任务类型+业务键），同一去重键同时只能有一个未结束任务
+    private Integer pendingDependencies;  // 尚未完成的上游任务数，为0时WAITING任务转为PENDING
     private Integer retryTimes;           // 重试次数
+    private Boolean retryable;            // 失败后是否允许定时重试，永久失败的任务为false
     private LocalDateTime startTime;      // 任务开始时间
     private LocalDateTime nextExecuteTime; // 下次执行时间
     private LocalDateTime endTime;        // 任务结束时间
+    private String ownerId;               // 认领该任务的节点标识
+    private LocalDateTime leaseExpireTime; // 认领租约到期时间
     private LocalDateTime createdAt;      // 创建时间
     private LocalDateTime updatedAt;      // 更新时间
     
@@ -33,6 +38,8 @@ public class Task {
         this.status = TaskStatus.PENDING;
         this.message = "任务已创建";
         this.retryTimes = 0;
+        this.retryable = true;
+        this.pendingDependencies = 0;
         this.createdAt = LocalDateTime.now();
         this.updatedAt = LocalDateTime.now();
     }
@@ -51,11 +58,17 @@ public class Task {
     
     // 设置重试状态
     public void setForRetry(String errorMessage) {
+        setForRetry(errorMessage, LocalDateTime.now().plusHours(1)); // 1小时后重试
+    }
+    
+    // 设置重试状态，在指定时间之后重新认领
+    public void setForRetry(String errorMessage, LocalDateTime nextExecuteTime) {
         this.status = TaskStatus.RETRY;
         this.message = errorMessage;
         this.retryTimes = (retryTimes == null ? 0 : retryTimes) + 1;
-        this.nextExecuteTime = LocalDateTime.now().plusHours(1); // 1小时后重试
+        this.nextExecuteTime = nextExecuteTime;
         this.updatedAt = LocalDateTime.now();
+        releaseLease();
     }
 
     
@@ -65,14 +78,28 @@ public class Task {
         this.message = message;
         this.endTime = LocalDateTime.now();
         this.updatedAt = LocalDateTime.now();
+        releaseLease();
     }
     
-    // 设置任务失败
+    // 设置任务失败，之后仍可被定时重试
     public void setFailed(String errorMessage) {
+        setFailed(errorMessage, true);
+    }
+    
+    // 设置任务失败，retryable为false时（重试也不会成功）定时重试跳过该任务
+    public void setFailed(String errorMessage, boolean retryable) {
         this.status = TaskStatus.FAILED;
+        this.retryable = retryable;
         this.message = errorMessage;
         this.endTime = LocalDateTime.now();
         this.updatedAt = LocalDateTime.now();
+        releaseLease();
+    }
+    
+    // 释放认领租约
+    public void releaseLease() {
+        this.ownerId = null;
+        this.leaseExpireTime = null;
     }
     
     // Getter和Setter方法
@@ -124,6 +151,22 @@ public class Task {
         this.taskParameters = taskParameters;
     }
     
+    public String getDedupKey() {
+        return dedupKey;
+    }
+    
+    public void setDedupKey(String dedupKey) {
+        this.dedupKey = dedupKey;
+    }
+    
+    public Integer getPendingDependencies() {
+        return pendingDependencies;
+    }
+    
+    public void setPendingDependencies(Integer pendingDependencies) {
+        this.pendingDependencies = pendingDependencies;
+    }
+    
     public Integer getRetryTimes() {
         return retryTimes;
     }
@@ -132,6 +175,14 @@ public class Task {
         this.retryTimes = retryTimes;
     }
     
+    public Boolean getRetryable() {
+        return retryable;
+    }
+    
+    public void setRetryable(Boolean retryable) {
+        this.retryable = retryable;
+    }
+    
     public LocalDateTime getStartTime() {
         return startTime;
     }
@@ -156,6 +207,22 @@ public class Task {
         this.endTime = endTime;
     }
     
+    public String getOwnerId() {
+        return ownerId;
+    }
+    
+    public void setOwnerId(String ownerId) {
+        this.ownerId = ownerId;
+    }
+    
+    public LocalDateTime getLeaseExpireTime() {
+        return leaseExpireTime;
+    }
+    
+    public void setLeaseExpireTime(LocalDateTime leaseExpireTime) {
+        this.leaseExpireTime = leaseExpireTime;
+    }
+    
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
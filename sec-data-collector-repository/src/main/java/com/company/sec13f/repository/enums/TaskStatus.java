@@ -5,6 +5,8 @@ package com.company.sec13f.repository.enums;
  */
 public enum TaskStatus {
     PENDING("待处理"),
+    WAITING("等待上游任务"),
+    RUNNING("运行中"),
     RETRY("等待重试"),
     COMPLETED("已完成"),
     FAILED("失败");
@@ -3,6 +3,7 @@ package com.company.sec13f.repository.mapper;
 import com.company.sec13f.repository.entity.Filing;
 import org.apache.ibatis.annotations.Param;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
 
@@ -135,4 +136,11 @@ public interface FilingMapper {
      * @return 报告期间列表
      */
     List<String> selectDistinctReportPeriodsByCik(@Param("cik") String cik);
+    
+    /**
+     * 按CIK统计历史申报延迟：每个报告期取最早的申报日期（不计修正申报），与报告期末相差的天数取平均
+     * @param since 只统计该日期之后的申报
+     * @return 每个CIK一行：cik, latestReportPeriod（最新报告期）, avgLagDays（平均延迟天数，可能为null）, quarters（统计的报告期数）
+     */
+    List<Map<String, Object>> selectFilingLagStats(@Param("since") LocalDate since);
 }
\ No newline at end of file
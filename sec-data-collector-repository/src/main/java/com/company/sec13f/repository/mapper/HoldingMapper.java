@@ -1,6 +1,7 @@
 package com.company.sec13f.repository.mapper;
 
 import com.company.sec13f.repository.entity.Holding;
+import com.company.sec13f.repository.model.HoldingRowBuffer;
 import org.apache.ibatis.annotations.Param;
 
 import java.util.List;
@@ -24,6 +25,21 @@ public interface HoldingMapper {
      */
     int batchInsert(@Param("holdings") List<Holding> holdings);
     
+    /**
+     * 从列式缓冲区批量插入同一Filing下的Holding记录
+     * @param filingId Filing主键ID
+     * @param cik 公司CIK
+     * @param companyName 公司名称
+     * @param rows 列式持仓缓冲区
+     * @param rowIndexes 本批次要插入的行下标
+     * @return 影响行数
+     */
+    int batchInsertRows(@Param("filingId") Long filingId,
+                        @Param("cik") String cik,
+                        @Param("companyName") String companyName,
+                        @Param("rows") HoldingRowBuffer rows,
+                        @Param("rowIndexes") int[] rowIndexes);
+    
     /**
      * 根据ID查询Holding
      * @param id 主键ID
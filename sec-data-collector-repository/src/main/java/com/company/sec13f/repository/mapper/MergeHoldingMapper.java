@@ -4,6 +4,7 @@ import com.company.sec13f.repository.entity.MergeHolding;
 import com.company.sec13f.repository.param.MergeHoldingsQueryParam;
 import org.apache.ibatis.annotations.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 
@@ -33,6 +34,27 @@ public interface MergeHoldingMapper {
      */
     int deleteByFilingId(@Param("filingId") Long filingId);
     
+    /**
+     * 批量删除多个filing_id的合并持仓记录
+     * @param filingIds 申报ID列表
+     * @return 影响行数
+     */
+    int deleteByFilingIds(@Param("filingIds") Collection<Long> filingIds);
+    
+    /**
+     * 聚合多个filing_id的持仓（按filing_id + cusip）并写入合并表
+     * @param filingIds 申报ID列表
+     * @return 插入的合并记录数
+     */
+    int insertAggregatedByFilingIds(@Param("filingIds") Collection<Long> filingIds);
+    
+    /**
+     * 统计多个filing_id各自的合并持仓记录数量
+     * @param filingIds 申报ID列表
+     * @return 每行包含 filing_id 和 merged_count，没有合并记录的filing不返回
+     */
+    List<Map<String, Object>> countGroupByFilingIds(@Param("filingIds") Collection<Long> filingIds);
+    
     /**
      * 根据filing_id和cusip查询聚合后的持仓数据
      * @param filingId 申报ID
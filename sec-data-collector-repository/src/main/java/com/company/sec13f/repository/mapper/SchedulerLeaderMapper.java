@@ -0,0 +1,32 @@
+package com.company.sec13f.repository.mapper;
+
+import org.apache.ibatis.annotations.Param;
+
+/**
+ * 调度主节点租约数据访问接口
+ * 每个租约名一行，持有者在租约到期前续约；租约以数据库时间计算，不依赖各节点的时钟
+ */
+public interface SchedulerLeaderMapper {
+    
+    /**
+     * 抢占或续约：租约不存在、已过期或本来就由ownerId持有时，由ownerId持有并把到期时间设为 当前时间 + ttlSeconds
+     * @param name 租约名
+     * @param ownerId 节点标识
+     * @param ttlSeconds 租约时长（秒）
+     * @return 影响行数（抢占或续约失败时为0）
+     */
+    int acquireOrRenew(@Param("name") String name, @Param("ownerId") String ownerId,
+                       @Param("ttlSeconds") long ttlSeconds);
+    
+    /**
+     * 查询租约未过期的持有者
+     * @return 节点标识，租约不存在或已过期时为null
+     */
+    String selectActiveOwner(@Param("name") String name);
+    
+    /**
+     * 主动释放本节点持有的租约（应用关闭时），其他节点下次抢占时即可接管
+     * @return 影响行数
+     */
+    int release(@Param("name") String name, @Param("ownerId") String ownerId);
+}
@@ -3,11 +3,14 @@ package com.company.sec13f.repository.mapper;
 import com.company.sec13f.repository.entity.Task;
 import com.company.sec13f.repository.enums.TaskStatus;
 import com.company.sec13f.repository.enums.TaskType;
+import com.company.sec13f.repository.param.TaskQueryParam;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 /**
  * 通用任务表数据访问接口
@@ -16,10 +19,25 @@ import java.util.List;
 public interface TaskMapper {
     
     /**
-     * 插入新任务
+     * 插入新任务，去重键与未结束任务冲突时抛出DuplicateKeyException
      */
     int insert(Task task);
     
+    /**
+     * 批量插入任务，任一行去重键冲突时整条语句失败（抛出DuplicateKeyException）
+     */
+    int batchInsert(@Param("tasks") List<Task> tasks);
+    
+    /**
+     * 按去重键查询未结束（PENDING/WAITING/RETRY/RUNNING）的任务
+     */
+    Task selectActiveByDedupKey(@Param("dedupKey") String dedupKey);
+    
+    /**
+     * 查询给定去重键中已有未结束任务的键
+     */
+    List<String> selectActiveDedupKeys(@Param("dedupKeys") Collection<String> dedupKeys);
+    
     /**
      * 根据ID查询任务
      */
@@ -35,6 +53,19 @@ public interface TaskMapper {
      */
     List<Task> selectAll();
     
+    /**
+     * 按条件分页查询任务（主键倒序，游标分页）
+     * @param queryParam 查询参数，beforeId为空时返回最新的任务
+     * @return 最多limit条任务
+     */
+    List<Task> selectPage(@Param("param") TaskQueryParam queryParam);
+    
+    /**
+     * 按状态和任务类型分组统计任务数
+     * @return 每行包含 status、task_type 和 task_count
+     */
+    List<Map<String, Object>> countGroupByStatusAndType();
+    
     /**
      * 根据状态查询任务
      */
@@ -60,6 +91,176 @@ public interface TaskMapper {
      */
     int update(Task task);
     
+    /**
+     * 写回本节点执行的任务结果，仅当任务仍为RUNNING且由ownerId认领时生效
+     * @param task 任务（状态、消息、时间等字段已更新）
+     * @param ownerId 认领该任务的节点标识
+     * @return 1表示写回成功，0表示任务已被回收或被其他节点认领
+     */
+    int updateOwned(@Param("task") Task task, @Param("ownerId") String ownerId);
+    
+    /**
+     * 锁定并查询一批任务中仍为RUNNING且由ownerId认领的任务ID，必须在事务中调用
+     */
+    List<String> selectOwnedTaskIdsForUpdate(@Param("taskIds") Collection<String> taskIds,
+                                             @Param("ownerId") String ownerId);
+    
+    /**
+     * 批量写回本节点执行的任务结果（状态、消息、重试次数和时间字段），并释放认领
+     * 仅对仍为RUNNING且由ownerId认领的任务生效
+     * @return 写回的任务数
+     */
+    int batchUpdateOwned(@Param("tasks") List<Task> tasks, @Param("ownerId") String ownerId);
+    
+    /**
+     * 为本节点仍在执行的任务续约（心跳）
+     * @return 续约成功的任务数
+     */
+    int renewLeases(@Param("taskIds") Collection<String> taskIds,
+                    @Param("ownerId") String ownerId,
+                    @Param("leaseExpireTime") LocalDateTime leaseExpireTime);
+    
+    /**
+     * 回收某类型租约已过期的RUNNING任务：重试次数未用尽的改为RETRY，否则标记为FAILED
+     * @param taskType 任务类型
+     * @param now 当前时间
+     * @param maxRetries 该类型的最大重试次数
+     * @param spreadSeconds 重新执行时间在 [now, now + spreadSeconds) 内随机分散
+     * @return 回收的任务数
+     */
+    int requeueExpiredLeases(@Param("taskType") TaskType taskType, @Param("now") LocalDateTime now,
+                             @Param("maxRetries") int maxRetries, @Param("spreadSeconds") long spreadSeconds);
+    
+    /**
+     * 批量重试近期失败的任务：一条UPDATE把失败任务改回PENDING并清零重试次数
+     * 只处理创建时间不早于createdAfter、没有上游依赖、且是同一去重键下最新的任务
+     * （已有更新的任务时说明已被重新创建，不再重试）
+     * @param now 当前时间
+     * @param createdAfter 只重试该时间之后创建的任务，限制永久失败的任务被反复重试的次数
+     * @param spreadSeconds 重新执行时间在 [now, now + spreadSeconds) 内随机分散
+     * @return 重新排队的任务数
+     */
+    int retryFailedTasks(@Param("now") LocalDateTime now, @Param("createdAfter") LocalDateTime createdAfter,
+                         @Param("spreadSeconds") long spreadSeconds);
+    
+    /**
+     * 锁定一批可认领的任务ID（SELECT ... FOR UPDATE SKIP LOCKED），必须在事务中调用
+     * @param now 当前时间
+     * @param taskType 任务类型，为null时不限类型
+     * @param limit 最多认领数量
+     */
+    List<Long> selectClaimableTaskIdsForUpdate(@Param("now") LocalDateTime now,
+                                               @Param("taskType") TaskType taskType,
+                                               @Param("limit") int limit);
+    
+    /**
+     * 将任务标记为RUNNING并写入认领节点和租约
+     */
+    int markClaimed(@Param("ids") List<Long> ids,
+                    @Param("ownerId") String ownerId,
+                    @Param("leaseExpireTime") LocalDateTime leaseExpireTime,
+                    @Param("now") LocalDateTime now);
+    
+    /**
+     * 按任务ID认领单个任务（条件更新），返回1表示认领成功
+     */
+    int claimByTaskId(@Param("taskId") String taskId,
+                      @Param("ownerId") String ownerId,
+                      @Param("leaseExpireTime") LocalDateTime leaseExpireTime,
+                      @Param("now") LocalDateTime now);
+    
+    /**
+     * 释放本节点对任务的认领，任务回到PENDING
+     */
+    int releaseClaim(@Param("taskId") String taskId, @Param("ownerId") String ownerId);
+    
+    /**
+     * 停机时归还本节点未完成的任务：回到PENDING并立即可被认领，不计入重试次数
+     * @param now 重新执行时间
+     * @return 归还的任务数
+     */
+    int releaseClaims(@Param("taskIds") Collection<String> taskIds, @Param("ownerId") String ownerId,
+                      @Param("now") LocalDateTime now);
+    
+    /**
+     * 启动时把本节点上次运行遗留的RUNNING任务的租约置为已过期，随后由requeueExpiredLeases重新排队
+     * @return 影响的任务数
+     */
+    int expireLeasesOwnedBy(@Param("ownerId") String ownerId, @Param("now") LocalDateTime now);
+    
+    /**
+     * 锁定一批可归档的任务ID（已结束且结束时间早于cutoff），必须在事务中调用
+     */
+    List<Long> selectArchivableTaskIdsForUpdate(@Param("cutoff") LocalDateTime cutoff, @Param("limit") int limit);
+    
+    /**
+     * 将任务复制到归档表tasks_archive
+     */
+    int insertArchiveByIds(@Param("ids") List<Long> ids);
+    
+    /**
+     * 删除这些任务（按主键ID）作为下游的依赖关系
+     */
+    int deleteDependenciesByIds(@Param("ids") List<Long> ids);
+    
+    /**
+     * 根据主键ID批量删除任务
+     */
+    int deleteByIds(@Param("ids") List<Long> ids);
+    
+    /**
+     * 在归档表中按任务ID查询
+     */
+    Task selectArchivedByTaskId(String taskId);
+    
+    /**
+     * 在归档表中按任务ID批量查询
+     */
+    List<Task> selectArchivedByTaskIds(@Param("taskIds") Collection<String> taskIds);
+    
+    /**
+     * 统计归档任务数
+     */
+    long countArchived();
+    
+    /**
+     * 按任务ID锁定并查询任务（创建下游任务时锁定上游任务，防止上游恰好在此期间完成），必须在事务中调用
+     */
+    List<Task> selectByTaskIdsForUpdate(@Param("taskIds") Collection<String> taskIds);
+    
+    /**
+     * 写入依赖关系：taskIds中的每个任务都依赖dependsOnTaskIds中的每个任务
+     */
+    int insertDependencies(@Param("taskIds") Collection<String> taskIds,
+                           @Param("dependsOnTaskIds") Collection<String> dependsOnTaskIds);
+    
+    /**
+     * 上游任务完成：下游WAITING任务的未完成依赖数减一，并把依赖关系标记为已满足
+     * @return 受影响的行数
+     */
+    int resolveDependencies(@Param("dependsOnTaskId") String dependsOnTaskId);
+    
+    /**
+     * 锁定并查询上游任务的下游中依赖已全部满足、仍为WAITING的任务ID，必须在事务中调用
+     */
+    List<String> selectReadyDependentTaskIdsForUpdate(@Param("dependsOnTaskId") String dependsOnTaskId);
+    
+    /**
+     * 将依赖已全部满足的WAITING任务改为PENDING
+     */
+    int markDependentsReady(@Param("taskIds") Collection<String> taskIds);
+    
+    /**
+     * 上游任务最终失败时，依赖它的WAITING任务同样标记为FAILED（每次调用处理一层下游）
+     * @return 标记为失败的任务数
+     */
+    int failWaitingTasksWithFailedUpstream(@Param("now") LocalDateTime now);
+    
+    /**
+     * 根据主键ID批量查询任务
+     */
+    List<Task> selectByIds(@Param("ids") List<Long> ids);
+    
     /**
      * 根据ID删除任务
      */
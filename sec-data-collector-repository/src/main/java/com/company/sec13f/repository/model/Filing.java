@@ -1,6 +1,7 @@
 package com.company.sec13f.repository.model;
 
 import java.time.LocalDate;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -15,6 +16,10 @@ public class Filing {
     private String formFile;
     private String reportPeriod;
     private List<Holding> holdings;
+    // 解析器直接填充的列式持仓；存在时holdings为null，getHoldings每次由它转换
+    private HoldingRowBuffer holdingRows;
+    // 持仓是否已在解析时逐行校验过
+    private boolean holdingsValidated;
 
     // Constructors
     public Filing() {
@@ -78,12 +83,51 @@ public class Filing {
         this.formFile = formFile;
     }
 
+    /**
+     * 持仓列表；持仓以列式设置时，每次调用都转换为新的只读列表，不修改本对象
+     */
     public List<Holding> getHoldings() {
+        if (holdings == null && holdingRows != null) {
+            return Collections.unmodifiableList(holdingRows.toHoldings());
+        }
         return holdings;
     }
 
     public void setHoldings(List<Holding> holdings) {
         this.holdings = holdings;
+        this.holdingRows = null;
+    }
+
+    /**
+     * 解析器填充的列式持仓；持仓以列表形式设置时为null
+     */
+    public HoldingRowBuffer getHoldingRows() {
+        return holdingRows;
+    }
+
+    public void setHoldingRows(HoldingRowBuffer holdingRows) {
+        this.holdingRows = holdingRows;
+        this.holdings = null;
+    }
+
+    /**
+     * 转换为列式持仓：已有列式缓冲区时直接返回，持仓以列表形式设置时每次调用都复制为新的缓冲区
+     */
+    public HoldingRowBuffer toHoldingRows() {
+        if (holdingRows != null) {
+            return holdingRows;
+        }
+        return holdings != null ? HoldingRowBuffer.of(holdings) : null;
+    }
+
+    /**
+     * 持仓行数，不触发列表转换
+     */
+    public int getHoldingCount() {
+        if (holdingRows != null) {
+            return holdingRows.size();
+        }
+        return holdings != null ? holdings.size() : 0;
     }
 
     public String getReportPeriod() {
@@ -94,6 +138,14 @@ public class Filing {
         this.reportPeriod = reportPeriod;
     }
 
+    public boolean isHoldingsValidated() {
+        return holdingsValidated;
+    }
+
+    public void setHoldingsValidated(boolean holdingsValidated) {
+        this.holdingsValidated = holdingsValidated;
+    }
+
     @Override
     public String toString() {
         return "Filing{" +
@@ -103,7 +155,7 @@ public class Filing {
                 ", filingDate=" + filingDate +
                 ", accessionNumber='" + accessionNumber + '\'' +
                 ", formFile='" + formFile + '\'' +
-                ", holdingsCount=" + (holdings != null ? holdings.size() : 0) +
+                ", holdingsCount=" + getHoldingCount() +
                 '}';
     }
 }
\ No newline at end of file
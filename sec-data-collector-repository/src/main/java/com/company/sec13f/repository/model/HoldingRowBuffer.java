@@ -0,0 +1,246 @@
+package com.company.sec13f.repository.model;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 列式持仓行缓冲区
+ *
+ * 用并行的基本类型数组保存一份申报的持仓行（市值以"分"为单位的long，股数为long），
+ * 解析器逐行直接追加，发行人名称和CUSIP只保存引用，持久层直接按下标绑定到批量INSERT语句，
+ * 避免每行再构造Holding、BigDecimal和装箱的Long。
+ * 缺失的市值或股数记为 {@link #NULL}，写入数据库时为NULL，不会变成0。
+ */
+public class HoldingRowBuffer {
+
+    /** 缺失值标记，只在缓冲区内部使用；SQL按 {@link #hasValue(int)} / {@link #hasShares(int)} 直接绑定NULL */
+    public static final long NULL = Long.MIN_VALUE;
+
+    private static final int DEFAULT_CAPACITY = 64;
+
+    private String[] issuers;
+    private String[] cusips;
+    private long[] valueCents;
+    private long[] shares;
+    private int size;
+
+    public HoldingRowBuffer() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public HoldingRowBuffer(int initialCapacity) {
+        int capacity = Math.max(initialCapacity, 1);
+        this.issuers = new String[capacity];
+        this.cusips = new String[capacity];
+        this.valueCents = new long[capacity];
+        this.shares = new long[capacity];
+    }
+
+    /**
+     * 追加一行持仓
+     * @param valueInCents 市值（分），缺失时为 {@link #NULL}
+     * @param shareCount 股数，缺失时为 {@link #NULL}
+     */
+    public void add(String issuer, String cusip, long valueInCents, long shareCount) {
+        ensureCapacity(size + 1);
+        issuers[size] = issuer;
+        cusips[size] = cusip;
+        valueCents[size] = valueInCents;
+        shares[size] = shareCount;
+        size++;
+    }
+
+    /**
+     * 由持仓列表构建缓冲区（非解析路径的兼容入口），缺失的市值/股数保留为 {@link #NULL}
+     */
+    public static HoldingRowBuffer of(List<Holding> holdings) {
+        HoldingRowBuffer buffer = new HoldingRowBuffer(holdings.size());
+        for (Holding holding : holdings) {
+            buffer.add(holding.getNameOfIssuer(),
+                holding.getCusip(),
+                holding.getValue() != null ? toCents(holding.getValue()) : NULL,
+                holding.getShares() != null ? holding.getShares() : NULL);
+        }
+        return buffer;
+    }
+
+    /**
+     * 转换为持仓对象列表（供仍按List&lt;Holding&gt;读取的调用方使用）
+     */
+    public List<Holding> toHoldings() {
+        List<Holding> holdings = new ArrayList<>(size);
+        for (int row = 0; row < size; row++) {
+            holdings.add(new Holding(issuers[row], cusips[row],
+                valueCents[row] != NULL ? BigDecimal.valueOf(valueCents[row], 2) : null,
+                shares[row] != NULL ? Long.valueOf(shares[row]) : null));
+        }
+        return holdings;
+    }
+
+    /**
+     * 将金额转换为以"分"为单位的long（四舍五入到两位小数，与DECIMAL(15,2)一致）
+     */
+    public static long toCents(BigDecimal value) {
+        return value.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValue();
+    }
+
+    /**
+     * 把已去掉千分位等符号的十进制字符串直接解析为"分"，不创建BigDecimal；第三位小数起四舍五入
+     * @return 市值（分），空字符串时为 {@link #NULL}
+     * @throws NumberFormatException 格式错误或超出long范围
+     */
+    public static long parseCents(String text) {
+        int length = text.length();
+        if (length == 0) {
+            return NULL;
+        }
+        int i = 0;
+        boolean negative = false;
+        char first = text.charAt(0);
+        if (first == '-' || first == '+') {
+            negative = first == '-';
+            i++;
+        }
+        long cents = 0;
+        int fractionDigits = 0;
+        boolean seenDigit = false;
+        boolean seenPoint = false;
+        boolean roundUp = false;
+        for (; i < length; i++) {
+            char c = text.charAt(i);
+            if (c == '.' && !seenPoint) {
+                seenPoint = true;
+                continue;
+            }
+            if (c < '0' || c > '9') {
+                throw new NumberFormatException("Invalid decimal: " + text);
+            }
+            seenDigit = true;
+            if (seenPoint && fractionDigits == 2) {
+                // 只看第三位小数决定进位，其后的位数忽略
+                roundUp = c >= '5';
+                fractionDigits++;
+                continue;
+            }
+            if (seenPoint && fractionDigits > 2) {
+                continue;
+            }
+            if (seenPoint) {
+                fractionDigits++;
+            }
+            if (cents > (Long.MAX_VALUE - (c - '0')) / 10) {
+                throw new NumberFormatException("Decimal out of range: " + text);
+            }
+            cents = cents * 10 + (c - '0');
+        }
+        if (!seenDigit) {
+            throw new NumberFormatException("Invalid decimal: " + text);
+        }
+        for (; fractionDigits < 2; fractionDigits++) {
+            if (cents > Long.MAX_VALUE / 10) {
+                throw new NumberFormatException("Decimal out of range: " + text);
+            }
+            cents *= 10;
+        }
+        if (roundUp) {
+            if (cents == Long.MAX_VALUE) {
+                throw new NumberFormatException("Decimal out of range: " + text);
+            }
+            cents++;
+        }
+        return negative ? -cents : cents;
+    }
+
+    /**
+     * 返回[from, to)范围内的行下标，供MyBatis foreach按下标绑定
+     */
+    public int[] rowIndexes(int from, int to) {
+        int end = Math.min(to, size);
+        int[] indexes = new int[Math.max(end - from, 0)];
+        for (int i = 0; i < indexes.length; i++) {
+            indexes[i] = from + i;
+        }
+        return indexes;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        Arrays.fill(issuers, 0, size, null);
+        Arrays.fill(cusips, 0, size, null);
+        size = 0;
+    }
+
+    public String getIssuer(int row) {
+        return issuers[row];
+    }
+
+    public String getCusip(int row) {
+        return cusips[row];
+    }
+
+    /**
+     * 市值（分），缺失时为 {@link #NULL}
+     */
+    public long getValueCents(int row) {
+        return valueCents[row];
+    }
+
+    /**
+     * 股数，缺失时为 {@link #NULL}
+     */
+    public long getShares(int row) {
+        return shares[row];
+    }
+
+    /**
+     * 该行是否有市值
+     */
+    public boolean hasValue(int row) {
+        return valueCents[row] != NULL;
+    }
+
+    /**
+     * 该行是否有股数
+     */
+    public boolean hasShares(int row) {
+        return shares[row] != NULL;
+    }
+
+    // 以下数组访问器供MyBatis映射按下标绑定，数组长度可能大于size()
+    public String[] getIssuers() {
+        return issuers;
+    }
+
+    public String[] getCusips() {
+        return cusips;
+    }
+
+    public long[] getValueCentsArray() {
+        return valueCents;
+    }
+
+    public long[] getSharesArray() {
+        return shares;
+    }
+
+    private void ensureCapacity(int required) {
+        if (required <= issuers.length) {
+            return;
+        }
+        int capacity = Math.max(required, issuers.length + (issuers.length >> 1));
+        issuers = Arrays.copyOf(issuers, capacity);
+        cusips = Arrays.copyOf(cusips, capacity);
+        valueCents = Arrays.copyOf(valueCents, capacity);
+        shares = Arrays.copyOf(shares, capacity);
+    }
+}
@@ -0,0 +1,93 @@
+package com.company.sec13f.repository.param;
+
+import com.company.sec13f.repository.enums.TaskStatus;
+import com.company.sec13f.repository.enums.TaskType;
+
+import java.time.LocalDateTime;
+
+/**
+ * 任务列表查询参数类
+ * 按主键ID倒序的游标分页：beforeId为上一页最后一条任务的ID，为空时从最新的任务开始
+ */
+public class TaskQueryParam {
+
+    private TaskType taskType;
+    private TaskStatus status;
+    private LocalDateTime createdFrom;
+    private LocalDateTime createdTo;
+    private Long beforeId;
+    private int limit;
+
+    public TaskQueryParam() {
+    }
+
+    public TaskQueryParam(TaskType taskType, TaskStatus status, LocalDateTime createdFrom, LocalDateTime createdTo,
+                          Long beforeId, int limit) {
+        this.taskType = taskType;
+        this.status = status;
+        this.createdFrom = createdFrom;
+        this.createdTo = createdTo;
+        this.beforeId = beforeId;
+        this.limit = limit;
+    }
+
+    public TaskType getTaskType() {
+        return taskType;
+    }
+
+    public void setTaskType(TaskType taskType) {
+        this.taskType = taskType;
+    }
+
+    public TaskStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(TaskStatus status) {
+        this.status = status;
+    }
+
+    public LocalDateTime getCreatedFrom() {
+        return createdFrom;
+    }
+
+    public void setCreatedFrom(LocalDateTime createdFrom) {
+        this.createdFrom = createdFrom;
+    }
+
+    public LocalDateTime getCreatedTo() {
+        return createdTo;
+    }
+
+    public void setCreatedTo(LocalDateTime createdTo) {
+        this.createdTo = createdTo;
+    }
+
+    public Long getBeforeId() {
+        return beforeId;
+    }
+
+    public void setBeforeId(Long beforeId) {
+        this.beforeId = beforeId;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public void setLimit(int limit) {
+        this.limit = limit;
+    }
+
+    @Override
+    public String toString() {
+        return "TaskQueryParam{" +
+                "taskType=" + taskType +
+                ", status=" + status +
+                ", createdFrom=" + createdFrom +
+                ", createdTo=" + createdTo +
+                ", beforeId=" + beforeId +
+                ", limit=" + limit +
+                '}';
+    }
+}
@@ -46,6 +46,21 @@ public class DatabaseInitializer {
                 session.update("DatabaseInit.createTasksTable");
                 System.out.println("✅ tasks表创建成功");
                 
+                // 创建task_dependencies表
+                System.out.println("📋 创建task_dependencies表...");
+                session.update("DatabaseInit.createTaskDependenciesTable");
+                System.out.println("✅ task_dependencies表创建成功");
+                
+                // 创建tasks_archive表
+                System.out.println("📋 创建tasks_archive表...");
+                session.update("DatabaseInit.createTasksArchiveTable");
+                System.out.println("✅ tasks_archive表创建成功");
+                
+                // 创建scheduler_leader表
+                System.out.println("📋 创建scheduler_leader表...");
+                session.update("DatabaseInit.createSchedulerLeaderTable");
+                System.out.println("✅ scheduler_leader表创建成功");
+                
                 // 提交事务
                 session.commit();
                 System.out.println("🎉 所有数据库表结构初始化完成！");
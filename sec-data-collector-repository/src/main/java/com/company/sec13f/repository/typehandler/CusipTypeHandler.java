@@ -0,0 +1,37 @@
+package com.company.sec13f.repository.typehandler;
+
+import com.company.sec13f.repository.util.IssuerDictionary;
+import org.apache.ibatis.type.BaseTypeHandler;
+import org.apache.ibatis.type.JdbcType;
+
+import java.sql.CallableStatement;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * CUSIP列类型处理器
+ * 查询结果取IssuerDictionary中该CUSIP条目的规范实例，与发行人名称池分开
+ */
+public class CusipTypeHandler extends BaseTypeHandler<String> {
+
+    @Override
+    public void setNonNullParameter(PreparedStatement ps, int i, String parameter, JdbcType jdbcType) throws SQLException {
+        ps.setString(i, parameter);
+    }
+
+    @Override
+    public String getNullableResult(ResultSet rs, String columnName) throws SQLException {
+        return IssuerDictionary.getInstance().cusip(rs.getString(columnName));
+    }
+
+    @Override
+    public String getNullableResult(ResultSet rs, int columnIndex) throws SQLException {
+        return IssuerDictionary.getInstance().cusip(rs.getString(columnIndex));
+    }
+
+    @Override
+    public String getNullableResult(CallableStatement cs, int columnIndex) throws SQLException {
+        return IssuerDictionary.getInstance().cusip(cs.getString(columnIndex));
+    }
+}
@@ -0,0 +1,280 @@
+package com.company.sec13f.repository.util;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 进程级发行人字典
+ *
+ * 同一批CUSIP和发行人名称（如"APPLE INC"）会在每季度成千上万份13F申报中重复出现。
+ * 字典为每个CUSIP登记一个规范条目（整数ID + 首次出现的发行人名称），
+ * 解析、校验和查询结果映射统一经由字典取得规范字符串实例，避免每次都持有新的副本。
+ *
+ * CUSIP条目和名称池各自有界，条目数超过 sec-collector.issuer-dictionary.max-entries 后按近似LRU（CLOCK）淘汰，
+ * 长期运行时旧季度不再出现的CUSIP会被新季度的替换掉。
+ * 解析线程和查询结果映射每行都会访问字典：读取走ConcurrentHashMap不加锁，只有超出容量时由一个线程淘汰，
+ * 其他线程不等待，条目数可能短暂超过上限。
+ * 只登记格式合法（9位大写字母数字）的CUSIP，解析出的无效值原样返回，不占用字典容量。
+ */
+public class IssuerDictionary {
+
+    /** 默认最多登记的CUSIP数量（名称池同样以此为上限） */
+    public static final int DEFAULT_MAX_ENTRIES = 200000;
+
+    private static final IssuerDictionary INSTANCE = new IssuerDictionary(DEFAULT_MAX_ENTRIES);
+
+    private volatile int maxEntries;
+    private final ClockMap<String, Entry> entriesByCusip = new ClockMap<>();
+    private final ClockMap<String, String> names = new ClockMap<>();
+    private final AtomicInteger nextId = new AtomicInteger(1);
+
+    IssuerDictionary(int maxEntries) {
+        this.maxEntries = Math.max(1, maxEntries);
+    }
+
+    public static IssuerDictionary getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * 返回CUSIP的规范字符串实例（必要时登记新条目），格式不合法时原样返回
+     */
+    public String cusip(String cusip) {
+        if (cusip == null) {
+            return null;
+        }
+        Entry entry = register(cusip, null);
+        return entry != null ? entry.getCusip() : cusip;
+    }
+
+    /**
+     * 返回发行人名称的规范字符串实例
+     * 名称与该CUSIP登记的规范名称相同时直接复用规范实例，否则进入名称池；CUSIP不合法时原样返回
+     */
+    public String issuerName(String cusip, String issuerName) {
+        if (issuerName == null) {
+            return null;
+        }
+        if (cusip == null) {
+            return name(issuerName);
+        }
+        Entry entry = register(cusip, issuerName);
+        if (entry == null) {
+            return issuerName;
+        }
+        if (issuerName.equals(entry.getIssuerName())) {
+            return entry.getIssuerName();
+        }
+        return name(issuerName);
+    }
+
+    /**
+     * 返回名称池中的规范字符串实例（不关联CUSIP）
+     */
+    public String name(String value) {
+        if (value == null) {
+            return null;
+        }
+        String existing = names.get(value);
+        return existing != null ? existing : names.putIfAbsent(value, value);
+    }
+
+    /**
+     * 返回CUSIP对应的发行人整数ID，CUSIP不合法时返回-1
+     * 条目被淘汰后再次登记会分配新的ID，ID只在条目驻留期间稳定
+     */
+    public int issuerId(String cusip) {
+        if (cusip == null) {
+            return -1;
+        }
+        Entry entry = register(cusip, null);
+        return entry != null ? entry.getId() : -1;
+    }
+
+    /**
+     * 查询已登记的条目，不存在时返回null
+     */
+    public Entry lookup(String cusip) {
+        if (cusip == null) {
+            return null;
+        }
+        return entriesByCusip.get(cusip);
+    }
+
+    public int size() {
+        return entriesByCusip.size();
+    }
+
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    /**
+     * 调整容量上限，缩小时立即淘汰最久未使用的条目
+     */
+    public void setMaxEntries(int maxEntries) {
+        this.maxEntries = Math.max(1, maxEntries);
+        entriesByCusip.evictIfFull();
+        names.evictIfFull();
+    }
+
+    /**
+     * 9位大写字母数字；StreamingHoldingValidator也按此规则拒绝无效CUSIP（校验位不符的CUSIP仍会保留）
+     */
+    public static boolean isCusipFormat(String cusip) {
+        if (cusip.length() != 9) {
+            return false;
+        }
+        for (int i = 0; i < 9; i++) {
+            char c = cusip.charAt(i);
+            if (!((c >= '0' && c <= '9') || (c >= 'A' && c <= 'Z'))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private Entry register(String cusip, String issuerName) {
+        if (!isCusipFormat(cusip)) {
+            return null;
+        }
+        Entry entry = entriesByCusip.get(cusip);
+        if (entry == null) {
+            // 并发登记同一CUSIP时以先写入的条目为准，落选的ID不再使用
+            entry = entriesByCusip.putIfAbsent(cusip, new Entry(nextId.getAndIncrement(), cusip, null));
+        }
+        if (entry.getIssuerName() == null && issuerName != null) {
+            entry.setIssuerNameIfAbsent(name(issuerName));
+        }
+        return entry;
+    }
+
+    /**
+     * 按CLOCK算法近似LRU淘汰的有界映射：读取只设置访问标记，不加锁也不调整顺序；
+     * 超出容量时由一个线程沿环形指针扫描，跳过（并清除）近期访问过的条目，淘汰其余条目
+     */
+    private class ClockMap<K, V> {
+
+        private final ConcurrentHashMap<K, Node<V>> map = new ConcurrentHashMap<>();
+        private final ReentrantLock evictionLock = new ReentrantLock();
+        // 淘汰指针，只在持有evictionLock时访问
+        private Iterator<Map.Entry<K, Node<V>>> hand;
+
+        V get(K key) {
+            Node<V> node = map.get(key);
+            if (node == null) {
+                return null;
+            }
+            node.touch();
+            return node.value;
+        }
+
+        /**
+         * 不存在时写入，返回映射中的值（已存在时为已有的值）
+         */
+        V putIfAbsent(K key, V value) {
+            Node<V> existing = map.putIfAbsent(key, new Node<>(value));
+            if (existing != null) {
+                existing.touch();
+                return existing.value;
+            }
+            if (map.size() > maxEntries) {
+                evictIfFull();
+            }
+            return value;
+        }
+
+        int size() {
+            return map.size();
+        }
+
+        /**
+         * 淘汰到容量以内；已有线程在淘汰时直接返回，由该线程释放锁后重新检查容量
+         */
+        void evictIfFull() {
+            while (map.size() > maxEntries && evictionLock.tryLock()) {
+                try {
+                    sweep();
+                } finally {
+                    evictionLock.unlock();
+                }
+            }
+        }
+
+        /**
+         * 沿淘汰指针扫描：先给近期访问过的条目第二次机会；扫描一圈后仍超出容量（条目被持续访问）时不再跳过，保证有界
+         */
+        private void sweep() {
+            int secondChances = map.size();
+            while (map.size() > maxEntries) {
+                if (hand == null || !hand.hasNext()) {
+                    hand = map.entrySet().iterator();
+                    if (!hand.hasNext()) {
+                        return;
+                    }
+                }
+                Map.Entry<K, Node<V>> candidate = hand.next();
+                Node<V> node = candidate.getValue();
+                if (node.referenced && secondChances-- > 0) {
+                    node.referenced = false;
+                } else {
+                    map.remove(candidate.getKey(), node);
+                }
+            }
+        }
+    }
+
+    private static class Node<V> {
+        private final V value;
+        private volatile boolean referenced;
+
+        Node(V value) {
+            this.value = value;
+        }
+
+        void touch() {
+            // 已标记时不再写，避免热点条目在多核间反复失效缓存行
+            if (!referenced) {
+                referenced = true;
+            }
+        }
+    }
+
+    /**
+     * 字典条目：CUSIP对应的规范发行人信息
+     */
+    public static class Entry {
+        private static final AtomicReferenceFieldUpdater<Entry, String> ISSUER_NAME =
+            AtomicReferenceFieldUpdater.newUpdater(Entry.class, String.class, "issuerName");
+
+        private final int id;
+        private final String cusip;
+        private volatile String issuerName;
+
+        private Entry(int id, String cusip, String issuerName) {
+            this.id = id;
+            this.cusip = cusip;
+            this.issuerName = issuerName;
+        }
+
+        public int getId() {
+            return id;
+        }
+
+        public String getCusip() {
+            return cusip;
+        }
+
+        public String getIssuerName() {
+            return issuerName;
+        }
+
+        private void setIssuerNameIfAbsent(String name) {
+            ISSUER_NAME.compareAndSet(this, null, name);
+        }
+    }
+}
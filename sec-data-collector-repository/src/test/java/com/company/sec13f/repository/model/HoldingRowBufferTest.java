@@ -0,0 +1,101 @@
+package com.company.sec13f.repository.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HoldingRowBufferTest {
+
+    @Test
+    void parseCentsScalesToTwoFractionDigits() {
+        assertEquals(1200L, HoldingRowBuffer.parseCents("12"));
+        assertEquals(1250L, HoldingRowBuffer.parseCents("12.5"));
+        assertEquals(1234L, HoldingRowBuffer.parseCents("12.34"));
+        assertEquals(50L, HoldingRowBuffer.parseCents(".5"));
+        assertEquals(500L, HoldingRowBuffer.parseCents("5."));
+        assertEquals(0L, HoldingRowBuffer.parseCents("0"));
+    }
+
+    @Test
+    void parseCentsRoundsHalfUpAtThirdFractionDigit() {
+        assertEquals(123L, HoldingRowBuffer.parseCents("1.234"));
+        assertEquals(124L, HoldingRowBuffer.parseCents("1.235"));
+        assertEquals(123L, HoldingRowBuffer.parseCents("1.2349"));
+        assertEquals(124L, HoldingRowBuffer.parseCents("1.2351"));
+        assertEquals(100L, HoldingRowBuffer.parseCents("0.995"));
+        for (String text : new String[] {"1.234", "1.235", "1.2349", "0.995", "-1.235", "-0.005"}) {
+            assertEquals(HoldingRowBuffer.toCents(new BigDecimal(text)), HoldingRowBuffer.parseCents(text), text);
+        }
+    }
+
+    @Test
+    void parseCentsHandlesSign() {
+        assertEquals(-1234L, HoldingRowBuffer.parseCents("-12.34"));
+        assertEquals(1234L, HoldingRowBuffer.parseCents("+12.34"));
+        assertEquals(-124L, HoldingRowBuffer.parseCents("-1.235"));
+        assertThrows(NumberFormatException.class, () -> HoldingRowBuffer.parseCents("-"));
+        assertThrows(NumberFormatException.class, () -> HoldingRowBuffer.parseCents("+-1"));
+        assertThrows(NumberFormatException.class, () -> HoldingRowBuffer.parseCents("1-"));
+    }
+
+    @Test
+    void parseCentsRejectsThousandsSeparators() {
+        // 调用方负责先去掉千分位等符号
+        assertThrows(NumberFormatException.class, () -> HoldingRowBuffer.parseCents("1,234.50"));
+        assertEquals(123450L, HoldingRowBuffer.parseCents("1,234.50".replaceAll("[,$\\s]", "")));
+    }
+
+    @Test
+    void parseCentsRejectsMalformedInput() {
+        assertThrows(NumberFormatException.class, () -> HoldingRowBuffer.parseCents("."));
+        assertThrows(NumberFormatException.class, () -> HoldingRowBuffer.parseCents("1.2.3"));
+        assertThrows(NumberFormatException.class, () -> HoldingRowBuffer.parseCents("12a"));
+    }
+
+    @Test
+    void parseCentsDetectsOverflow() {
+        assertEquals(Long.MAX_VALUE, HoldingRowBuffer.parseCents("92233720368547758.07"));
+        assertThrows(NumberFormatException.class, () -> HoldingRowBuffer.parseCents("92233720368547758.08"));
+        assertThrows(NumberFormatException.class, () -> HoldingRowBuffer.parseCents("92233720368547759"));
+        assertThrows(NumberFormatException.class, () -> HoldingRowBuffer.parseCents("92233720368547758.075"));
+        assertThrows(NumberFormatException.class, () -> HoldingRowBuffer.parseCents("99999999999999999999999"));
+    }
+
+    @Test
+    void parseCentsTreatsEmptyInputAsMissing() {
+        assertEquals(HoldingRowBuffer.NULL, HoldingRowBuffer.parseCents(""));
+        assertThrows(NumberFormatException.class, () -> HoldingRowBuffer.parseCents("   "));
+    }
+
+    @Test
+    void missingValuesStayNull() {
+        HoldingRowBuffer rows = new HoldingRowBuffer(1);
+        rows.add("APPLE INC", "037833100", 12345L, HoldingRowBuffer.NULL);
+        rows.add("MICROSOFT CORP", "594918104", HoldingRowBuffer.NULL, 10L);
+
+        assertTrue(rows.hasValue(0));
+        assertFalse(rows.hasShares(0));
+        assertFalse(rows.hasValue(1));
+        assertTrue(rows.hasShares(1));
+
+        List<Holding> holdings = rows.toHoldings();
+        assertEquals(new BigDecimal("123.45"), holdings.get(0).getValue());
+        assertNull(holdings.get(0).getShares());
+        assertNull(holdings.get(1).getValue());
+        assertEquals(Long.valueOf(10L), holdings.get(1).getShares());
+
+        HoldingRowBuffer copy = HoldingRowBuffer.of(holdings);
+        assertEquals(2, copy.size());
+        assertFalse(copy.hasShares(0));
+        assertFalse(copy.hasValue(1));
+        assertArrayEquals(new int[] {0, 1}, copy.rowIndexes(0, 10));
+    }
+}
@@ -0,0 +1,99 @@
+package com.company.sec13f.repository.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class IssuerDictionaryTest {
+
+    private static String cusipOf(int i) {
+        return String.format("%09d", i);
+    }
+
+    @Test
+    void sizeStaysBoundedBeyondMaxEntries() {
+        IssuerDictionary dictionary = new IssuerDictionary(100);
+        for (int i = 0; i < 100 + 250; i++) {
+            dictionary.cusip(cusipOf(i));
+        }
+        assertEquals(100, dictionary.size());
+        // 最新登记的条目一定驻留
+        assertNotNull(dictionary.lookup(cusipOf(349)));
+    }
+
+    @Test
+    void recentlyReadEntriesSurviveOneSweep() {
+        IssuerDictionary dictionary = new IssuerDictionary(10);
+        for (int i = 0; i < 10; i++) {
+            dictionary.cusip(cusipOf(i));
+        }
+        for (int i = 0; i < 10; i += 2) {
+            dictionary.cusip(cusipOf(i));
+        }
+
+        // 新登记5个条目，淘汰指针扫描一圈内足以淘汰未被访问的条目
+        for (int i = 10; i < 15; i++) {
+            dictionary.cusip(cusipOf(i));
+        }
+
+        assertEquals(10, dictionary.size());
+        for (int i = 0; i < 10; i += 2) {
+            assertNotNull(dictionary.lookup(cusipOf(i)), "recently read entry evicted: " + cusipOf(i));
+        }
+    }
+
+    @Test
+    void setMaxEntriesShrinksImmediately() {
+        IssuerDictionary dictionary = new IssuerDictionary(100);
+        for (int i = 0; i < 50; i++) {
+            dictionary.issuerName(cusipOf(i), "ISSUER " + i);
+            dictionary.name("OTHER NAME " + i);
+        }
+        assertEquals(50, dictionary.size());
+
+        dictionary.setMaxEntries(10);
+
+        assertEquals(10, dictionary.getMaxEntries());
+        assertEquals(10, dictionary.size());
+    }
+
+    @Test
+    void invalidCusipsAreReturnedUnchangedWithoutTakingCapacity() {
+        IssuerDictionary dictionary = new IssuerDictionary(10);
+        String[] invalid = {"03783310", "0378331000", "037833l00", "03783-100", ""};
+        for (String cusip : invalid) {
+            assertSame(cusip, dictionary.cusip(cusip));
+            String issuer = new String("APPLE INC");
+            assertSame(issuer, dictionary.issuerName(cusip, issuer));
+            assertEquals(-1, dictionary.issuerId(cusip));
+        }
+        assertEquals(0, dictionary.size());
+        assertNull(dictionary.cusip(null));
+    }
+
+    @Test
+    void issuerNameReturnsCanonicalInstance() {
+        IssuerDictionary dictionary = new IssuerDictionary(10);
+        String first = new String("APPLE INC");
+        String second = new String("APPLE INC");
+        assertNotSame(first, second);
+
+        assertSame(first, dictionary.issuerName("037833100", first));
+        assertSame(first, dictionary.issuerName("037833100", second));
+        assertSame(first, dictionary.lookup("037833100").getIssuerName());
+
+        String cusip = dictionary.cusip(new String("037833100"));
+        assertSame(cusip, dictionary.cusip(new String("037833100")));
+        assertEquals(dictionary.issuerId("037833100"), dictionary.lookup(cusip).getId());
+
+        // 与登记名称不同的写法进入名称池，同样返回规范实例
+        String variant = new String("APPLE INC.");
+        assertSame(variant, dictionary.issuerName("037833100", variant));
+        assertSame(variant, dictionary.issuerName("037833100", new String("APPLE INC.")));
+        assertEquals(1, dictionary.size());
+    }
+}
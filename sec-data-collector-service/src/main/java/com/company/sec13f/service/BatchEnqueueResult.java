@@ -0,0 +1,57 @@
+package com.company.sec13f.service;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 批量创建任务的结果
+ */
+public class BatchEnqueueResult {
+
+    private final int requested;
+    private final List<String> taskIds;
+    private final int skippedDuplicates;
+    private final int skippedActive;
+
+    public BatchEnqueueResult(int requested, List<String> taskIds, int skippedDuplicates, int skippedActive) {
+        this.requested = requested;
+        this.taskIds = Collections.unmodifiableList(taskIds);
+        this.skippedDuplicates = skippedDuplicates;
+        this.skippedActive = skippedActive;
+    }
+
+    /**
+     * 请求中有效（非空）的条目数
+     */
+    public int getRequested() {
+        return requested;
+    }
+
+    public int getCreated() {
+        return taskIds.size();
+    }
+
+    public List<String> getTaskIds() {
+        return taskIds;
+    }
+
+    /**
+     * 请求内重复而跳过的条目数
+     */
+    public int getSkippedDuplicates() {
+        return skippedDuplicates;
+    }
+
+    /**
+     * 已有未结束任务而跳过的条目数
+     */
+    public int getSkippedActive() {
+        return skippedActive;
+    }
+
+    @Override
+    public String toString() {
+        return "requested=" + requested + ", created=" + getCreated()
+            + ", skippedDuplicates=" + skippedDuplicates + ", skippedActive=" + skippedActive;
+    }
+}
@@ -0,0 +1,253 @@
+package com.company.sec13f.service;
+
+import com.company.sec13f.repository.entity.Company;
+import com.company.sec13f.repository.mapper.CompanyMapper;
+import com.company.sec13f.repository.mapper.FilingMapper;
+import com.company.sec13f.service.util.Logger;
+import com.company.sec13f.service.util.Utils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 按季度申报窗口调整抓取频率
+ *
+ * 13F须在季度结束后45天内申报，申报集中在这段时间。根据每家机构历史上申报日期与报告期末的平均间隔，
+ * 估计其本季度的申报日期，把尚未申报本季度的机构分为：
+ * <ul>
+ *   <li>PEAK：已接近或超过预计申报日期，每隔 poll-cron 抓取一次，数小时内发现新申报</li>
+ *   <li>DAILY：本季度申报期内但离预计日期还早，随每晚的定时抓取刷新</li>
+ *   <li>SLOW：已申报本季度或不在申报期内，每 off-season-interval-days 天轮到一次</li>
+ * </ul>
+ * 没有历史申报的机构按 default-lag-days 估计。SLOW的机构按CIK哈希分散到各天，每晚的定时抓取只包含当天轮到的部分。
+ * 定时任务在多节点部署时只在调度主节点执行。
+ */
+@Service
+public class FilingWindowScheduler {
+
+    /**
+     * 抓取频率
+     */
+    public enum Cadence {
+        /** 预计申报日期附近，申报期内每隔 poll-cron 抓取 */
+        PEAK,
+        /** 申报期内，每天抓取 */
+        DAILY,
+        /** 非申报期或本季度已申报，每 off-season-interval-days 天抓取 */
+        SLOW
+    }
+
+    /** 统计历史申报延迟时回溯的年数 */
+    private static final int HISTORY_YEARS = 3;
+
+    private final CompanyMapper companyMapper;
+    private final FilingMapper filingMapper;
+    private final TaskService taskService;
+    private final SchedulerLeadership leadership;
+    private final Logger logger;
+    private final boolean schedulingEnabled;
+    private final boolean enabled;
+    private final int windowDays;
+    private final int graceDays;
+    private final int leadDays;
+    private final int defaultLagDays;
+    private final int offSeasonIntervalDays;
+    private final long pollSpreadMinutes;
+
+    @Autowired
+    public FilingWindowScheduler(CompanyMapper companyMapper, FilingMapper filingMapper, TaskService taskService,
+                                 SchedulerLeadership leadership,
+                                 @Value("${sec-collector.scheduling.enabled:true}") boolean schedulingEnabled,
+                                 @Value("${sec-collector.scheduling.filing-window.enabled:true}") boolean enabled,
+                                 @Value("${sec-collector.scheduling.filing-window.window-days:45}") int windowDays,
+                                 @Value("${sec-collector.scheduling.filing-window.grace-days:5}") int graceDays,
+                                 @Value("${sec-collector.scheduling.filing-window.lead-days:5}") int leadDays,
+                                 @Value("${sec-collector.scheduling.filing-window.default-lag-days:40}") int defaultLagDays,
+                                 @Value("${sec-collector.scheduling.filing-window.off-season-interval-days:7}") int offSeasonIntervalDays,
+                                 @Value("${sec-collector.scheduling.filing-window.poll-spread-minutes:30}") long pollSpreadMinutes) {
+        this.companyMapper = companyMapper;
+        this.filingMapper = filingMapper;
+        this.taskService = taskService;
+        this.leadership = leadership;
+        this.logger = Logger.getInstance();
+        this.schedulingEnabled = schedulingEnabled;
+        this.enabled = enabled;
+        this.windowDays = Math.max(1, windowDays);
+        this.graceDays = Math.max(0, graceDays);
+        this.leadDays = Math.max(0, leadDays);
+        this.defaultLagDays = Math.max(0, defaultLagDays);
+        this.offSeasonIntervalDays = Math.max(1, offSeasonIntervalDays);
+        this.pollSpreadMinutes = Math.max(0, pollSpreadMinutes);
+    }
+
+    /**
+     * 申报期内定时抓取接近预计申报日期的机构（多节点部署时只在调度主节点执行）
+     */
+    @Scheduled(cron = "${sec-collector.scheduling.filing-window.poll-cron:0 15 */2 * * ?}")
+    public void scheduledWindowPoll() {
+        if (!schedulingEnabled || !enabled || !leadership.isLeader()) {
+            return;
+        }
+        try {
+            performWindowPoll();
+        } catch (Exception e) {
+            logger.error("❌ 申报窗口抓取任务创建失败", e);
+        }
+    }
+
+    /**
+     * 为PEAK的机构创建抓取任务，执行时间在 poll-spread-minutes 内均匀错开
+     */
+    public BatchEnqueueResult performWindowPoll() {
+        LocalDate today = LocalDate.now();
+        List<Company> peak = new ArrayList<>();
+        if (isInSeason(today)) {
+            Map<String, LagStats> lagStats = loadLagStats(today);
+            for (Company company : companyMapper.selectActiveCompanies()) {
+                if (cadenceOf(company, lagStats, today) == Cadence.PEAK) {
+                    peak.add(company);
+                }
+            }
+        }
+        if (peak.isEmpty()) {
+            logger.debug("📅 当前没有处于申报窗口的机构");
+            return new BatchEnqueueResult(0, new ArrayList<>(), 0, 0);
+        }
+        logger.info("📅 申报窗口抓取，季度末: " + quarterEndOf(today) + "，接近申报日期的机构: " + peak.size() + " 家");
+        return taskService.createScrapingTasks(peak, TimeUnit.MINUTES.toSeconds(pollSpreadMinutes));
+    }
+
+    /**
+     * 从活跃公司中选出今晚需要刷新的部分：DAILY和PEAK全部刷新，SLOW只刷新当天轮到的；未开启时返回全部
+     */
+    public List<Company> selectForNightlyRefresh(List<Company> companies, LocalDate today) {
+        if (!enabled) {
+            return companies;
+        }
+        Map<String, LagStats> lagStats = loadLagStats(today);
+        List<Company> selected = new ArrayList<>();
+        for (Company company : companies) {
+            if (cadenceOf(company, lagStats, today) != Cadence.SLOW || isRotationDay(company, today)) {
+                selected.add(company);
+            }
+        }
+        return selected;
+    }
+
+    /**
+     * 当前申报窗口状态：季度末、距季度末天数、是否在申报期内及各抓取频率的机构数
+     */
+    public Map<String, Object> getStatus() {
+        LocalDate today = LocalDate.now();
+        Map<Cadence, Integer> counts = new EnumMap<>(Cadence.class);
+        for (Cadence cadence : Cadence.values()) {
+            counts.put(cadence, 0);
+        }
+        if (enabled) {
+            Map<String, LagStats> lagStats = loadLagStats(today);
+            for (Company company : companyMapper.selectActiveCompanies()) {
+                counts.merge(cadenceOf(company, lagStats, today), 1, Integer::sum);
+            }
+        }
+
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("enabled", enabled);
+        status.put("quarterEnd", quarterEndOf(today).toString());
+        status.put("daysSinceQuarterEnd", ChronoUnit.DAYS.between(quarterEndOf(today), today));
+        status.put("inSeason", isInSeason(today));
+        status.put("cadences", counts);
+        return status;
+    }
+
+    /**
+     * 判断机构当前的抓取频率
+     */
+    Cadence cadenceOf(Company company, Map<String, LagStats> lagStats, LocalDate today) {
+        if (!isInSeason(today)) {
+            return Cadence.SLOW;
+        }
+        LocalDate quarterEnd = quarterEndOf(today);
+        String cik = Utils.normalizeCik(company.getCik());
+        LagStats stats = cik != null ? lagStats.get(cik) : null;
+        if (stats != null && stats.latestReportPeriod != null
+            && stats.latestReportPeriod.compareTo(quarterEnd.toString()) >= 0) {
+            return Cadence.SLOW;
+        }
+        long expectedLag = stats != null && stats.avgLagDays != null ? Math.round(stats.avgLagDays) : defaultLagDays;
+        expectedLag = Math.min(expectedLag, windowDays);
+        long daysSinceQuarterEnd = ChronoUnit.DAYS.between(quarterEnd, today);
+        return daysSinceQuarterEnd >= expectedLag - leadDays ? Cadence.PEAK : Cadence.DAILY;
+    }
+
+    private boolean isInSeason(LocalDate today) {
+        return ChronoUnit.DAYS.between(quarterEndOf(today), today) <= windowDays + graceDays;
+    }
+
+    /**
+     * 最近一个已结束的季度的最后一天
+     */
+    static LocalDate quarterEndOf(LocalDate today) {
+        int quarterStartMonth = (today.getMonthValue() - 1) / 3 * 3 + 1;
+        return LocalDate.of(today.getYear(), quarterStartMonth, 1).minusDays(1);
+    }
+
+    /**
+     * SLOW的机构按CIK哈希分散，每 off-season-interval-days 天轮到一次
+     */
+    private boolean isRotationDay(Company company, LocalDate today) {
+        String cik = Utils.normalizeCik(company.getCik());
+        return Math.floorMod(cik != null ? cik.hashCode() : 0, offSeasonIntervalDays)
+            == Math.floorMod(today.toEpochDay(), (long) offSeasonIntervalDays);
+    }
+
+    private Map<String, LagStats> loadLagStats(LocalDate today) {
+        Map<String, LagStats> lagStats = new HashMap<>();
+        for (Map<String, Object> row : filingMapper.selectFilingLagStats(today.minusYears(HISTORY_YEARS))) {
+            String cik = row.get("cik") != null ? Utils.normalizeCik(row.get("cik").toString()) : null;
+            if (cik == null) {
+                continue;
+            }
+            Object latestReportPeriod = row.get("latestReportPeriod");
+            Object avgLagDays = row.get("avgLagDays");
+            lagStats.merge(cik,
+                new LagStats(latestReportPeriod != null ? latestReportPeriod.toString() : null,
+                    avgLagDays instanceof Number ? ((Number) avgLagDays).doubleValue() : null),
+                LagStats::newer);
+        }
+        return lagStats;
+    }
+
+    /**
+     * 单个机构的历史申报统计
+     */
+    static class LagStats {
+        private final String latestReportPeriod;
+        private final Double avgLagDays;
+
+        LagStats(String latestReportPeriod, Double avgLagDays) {
+            this.latestReportPeriod = latestReportPeriod;
+            this.avgLagDays = avgLagDays;
+        }
+
+        /**
+         * 同一机构以不同CIK格式出现时，取最新报告期较新的一条
+         */
+        static LagStats newer(LagStats a, LagStats b) {
+            if (a.latestReportPeriod == null) {
+                return b;
+            }
+            return b.latestReportPeriod != null && b.latestReportPeriod.compareTo(a.latestReportPeriod) > 0 ? b : a;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.company.sec13f.service;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 任务重试策略：带随机抖动的指数退避
+ *
+ * 第n次重试（n从0开始）的基础间隔为 baseDelaySeconds * multiplier^n，被限流的失败再乘以 rateLimitedFactor，
+ * 不超过 maxDelaySeconds；最终间隔在基础间隔的 ±jitter 范围内随机，超过 maxDelaySeconds 的部分不取，
+ * 达到上限的重试在 [maxDelaySeconds * (1 - jitter), maxDelaySeconds] 内随机。
+ * 这样同一时刻失败的大量任务（如SEC短暂不可用）即使退避到上限也会分散在不同时间重试。
+ */
+public class RetryPolicy {
+
+    private final int maxRetries;
+    private final long baseDelaySeconds;
+    private final double multiplier;
+    private final long maxDelaySeconds;
+    private final double jitter;
+    private final double rateLimitedFactor;
+
+    public RetryPolicy(int maxRetries, long baseDelaySeconds, double multiplier, long maxDelaySeconds,
+                       double jitter, double rateLimitedFactor) {
+        this.maxRetries = Math.max(0, maxRetries);
+        this.baseDelaySeconds = Math.max(1, baseDelaySeconds);
+        this.multiplier = Math.max(1.0, multiplier);
+        this.maxDelaySeconds = Math.max(this.baseDelaySeconds, maxDelaySeconds);
+        this.jitter = Math.min(1.0, Math.max(0.0, jitter));
+        this.rateLimitedFactor = Math.max(1.0, rateLimitedFactor);
+    }
+
+    /**
+     * 已重试retryTimes次的任务是否还能重试
+     */
+    public boolean canRetry(int retryTimes) {
+        return retryTimes < maxRetries;
+    }
+
+    /**
+     * 计算下一次重试前的等待秒数
+     * @param retryTimes 已重试次数
+     * @param rateLimited 本次失败是否因为被限流
+     */
+    public long nextDelaySeconds(int retryTimes, boolean rateLimited) {
+        double delay = baseDelaySeconds * Math.pow(multiplier, Math.max(0, retryTimes));
+        if (rateLimited) {
+            delay *= rateLimitedFactor;
+        }
+        delay = Math.min(maxDelaySeconds, delay);
+        if (jitter > 0) {
+            // 抖动区间截去超过上限的部分，上限处只向下抖动，避免大量任务都等待恰好maxDelaySeconds
+            double low = delay * (1.0 - jitter);
+            double high = Math.min(maxDelaySeconds, delay * (1.0 + jitter));
+            delay = low + (high - low) * ThreadLocalRandom.current().nextDouble();
+        }
+        return Math.max(1, Math.round(delay));
+    }
+
+    public int getMaxRetries() {
+        return maxRetries;
+    }
+
+    @Override
+    public String toString() {
+        return "maxRetries=" + maxRetries + ", baseDelay=" + baseDelaySeconds + "s, multiplier=" + multiplier
+            + ", maxDelay=" + maxDelaySeconds + "s, jitter=" + jitter + ", rateLimitedFactor=" + rateLimitedFactor;
+    }
+}
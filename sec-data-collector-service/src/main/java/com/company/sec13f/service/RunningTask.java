@@ -0,0 +1,107 @@
+package com.company.sec13f.service;
+
+import java.time.LocalDateTime;
+
+/**
+ * 本节点已认领、尚未结束的任务
+ *
+ * 从认领到执行结束都登记在TaskService中，心跳据此续约；开始执行时记录工作线程和超时截止时间，
+ * 超时后中断工作线程，并停止续约，使卡死的任务在租约到期后由回收器重新排队。
+ * 节点停机时未结束的任务被归还（取消）：尚未开始的不再执行，执行中的被中断且结果不再写回。
+ */
+class RunningTask {
+
+    private final String taskId;
+    private Thread thread;
+    private LocalDateTime deadline;
+    private long timeoutSeconds;
+    private long startedNanos;
+    private boolean timedOut;
+    private boolean finished;
+    private boolean cancelled;
+
+    RunningTask(String taskId) {
+        this.taskId = taskId;
+    }
+
+    String getTaskId() {
+        return taskId;
+    }
+
+    /**
+     * 开始执行：记录工作线程，timeoutSeconds大于0时设置超时截止时间
+     * @return 任务已被取消（停机归还）时返回false，不应再执行
+     */
+    synchronized boolean start(Thread thread, long timeoutSeconds) {
+        if (cancelled) {
+            return false;
+        }
+        this.thread = thread;
+        this.timeoutSeconds = timeoutSeconds;
+        this.startedNanos = System.nanoTime();
+        this.deadline = timeoutSeconds > 0 ? LocalDateTime.now().plusSeconds(timeoutSeconds) : null;
+        return true;
+    }
+
+    /**
+     * 执行结束，之后不会再被中断
+     */
+    synchronized void finish() {
+        this.finished = true;
+        this.thread = null;
+    }
+
+    /**
+     * 已开始执行且超过截止时间
+     */
+    synchronized boolean isOverdue(LocalDateTime now) {
+        return !finished && !timedOut && deadline != null && now.isAfter(deadline);
+    }
+
+    /**
+     * 标记超时并中断工作线程
+     * @return 本次调用是否标记了超时（已结束或已超时时返回false）
+     */
+    synchronized boolean timeout() {
+        if (finished || timedOut) {
+            return false;
+        }
+        timedOut = true;
+        if (thread != null) {
+            thread.interrupt();
+        }
+        return true;
+    }
+
+    /**
+     * 停机时归还任务：标记取消并中断正在执行的工作线程
+     */
+    synchronized void cancel() {
+        if (finished) {
+            return;
+        }
+        cancelled = true;
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    synchronized boolean isCancelled() {
+        return cancelled;
+    }
+
+    synchronized boolean isTimedOut() {
+        return timedOut;
+    }
+
+    synchronized long getTimeoutSeconds() {
+        return timeoutSeconds;
+    }
+
+    /**
+     * 从开始执行到现在的纳秒数，未开始执行时为0
+     */
+    synchronized long getRunNanos() {
+        return startedNanos != 0 ? System.nanoTime() - startedNanos : 0;
+    }
+}
@@ -0,0 +1,117 @@
+package com.company.sec13f.service;
+
+import com.company.sec13f.repository.entity.Company;
+import com.company.sec13f.repository.mapper.CompanyMapper;
+import com.company.sec13f.repository.mapper.TaskMapper;
+import com.company.sec13f.service.util.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 定时抓取服务
+ *
+ * 按 auto-scraping-cron 为活跃公司创建持仓抓取任务，执行时间在 refresh-window-minutes 内均匀错开，
+ * 使整个刷新过程以平稳的速率请求SEC；已有未结束抓取任务的公司跳过。
+ * 刷新哪些公司由 {@link FilingWindowScheduler} 按季度申报窗口决定，非申报期每晚只刷新轮到的一部分。
+ * 按 retry-failed-cron 用一条UPDATE把近期失败的任务重新排队。
+ * 两个定时任务在多节点部署时只在调度主节点执行，手动触发不受此限制（重复的任务按去重键合并）。
+ */
+@Service
+public class ScheduledScrapingService {
+
+    private final CompanyMapper companyMapper;
+    private final TaskMapper taskMapper;
+    private final TaskService taskService;
+    private final FilingWindowScheduler filingWindowScheduler;
+    private final SchedulerLeadership leadership;
+    private final Logger logger;
+    private final boolean enabled;
+    private final long refreshWindowMinutes;
+    private final long retryFailedWindowHours;
+    private final long retryFailedSpreadMinutes;
+
+    @Autowired
+    public ScheduledScrapingService(CompanyMapper companyMapper, TaskMapper taskMapper, TaskService taskService,
+                                    FilingWindowScheduler filingWindowScheduler, SchedulerLeadership leadership,
+                                    @Value("${sec-collector.scheduling.enabled:true}") boolean enabled,
+                                    @Value("${sec-collector.scheduling.refresh-window-minutes:240}") long refreshWindowMinutes,
+                                    @Value("${sec-collector.scheduling.retry-failed-window-hours:24}") long retryFailedWindowHours,
+                                    @Value("${sec-collector.scheduling.retry-failed-spread-minutes:30}") long retryFailedSpreadMinutes) {
+        this.companyMapper = companyMapper;
+        this.taskMapper = taskMapper;
+        this.taskService = taskService;
+        this.filingWindowScheduler = filingWindowScheduler;
+        this.leadership = leadership;
+        this.logger = Logger.getInstance();
+        this.enabled = enabled;
+        this.refreshWindowMinutes = Math.max(0, refreshWindowMinutes);
+        this.retryFailedWindowHours = Math.max(1, retryFailedWindowHours);
+        this.retryFailedSpreadMinutes = Math.max(0, retryFailedSpreadMinutes);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 定时刷新活跃公司的持仓（多节点部署时只在调度主节点执行）
+     */
+    @Scheduled(cron = "${sec-collector.scheduling.auto-scraping-cron:0 0 2 * * ?}")
+    public void scheduledScraping() {
+        if (!enabled || !leadership.isLeader()) {
+            return;
+        }
+        try {
+            performScheduledScraping();
+        } catch (Exception e) {
+            logger.error("❌ 定时抓取任务创建失败", e);
+        }
+    }
+
+    /**
+     * 定时重试失败任务（多节点部署时只在调度主节点执行）
+     */
+    @Scheduled(cron = "${sec-collector.scheduling.retry-failed-cron:0 0 */6 * * ?}")
+    public void scheduledRetryFailed() {
+        if (!enabled || !leadership.isLeader()) {
+            return;
+        }
+        try {
+            retryFailedTasks();
+        } catch (Exception e) {
+            logger.error("❌ 定时重试失败任务出错", e);
+        }
+    }
+
+    /**
+     * 为今晚需要刷新的活跃公司创建抓取任务，执行时间在刷新窗口内均匀错开
+     */
+    public BatchEnqueueResult performScheduledScraping() {
+        List<Company> activeCompanies = companyMapper.selectActiveCompanies();
+        List<Company> companies = filingWindowScheduler.selectForNightlyRefresh(activeCompanies, LocalDate.now());
+        logger.info("⏰ 开始定时抓取，活跃公司: " + activeCompanies.size() + " 家，本次刷新: " + companies.size()
+            + " 家，刷新窗口: " + refreshWindowMinutes + "分钟");
+        BatchEnqueueResult result = taskService.createScrapingTasks(companies, TimeUnit.MINUTES.toSeconds(refreshWindowMinutes));
+        logger.info("✅ 定时抓取任务已创建: " + result);
+        return result;
+    }
+
+    /**
+     * 把最近 retry-failed-window-hours 内创建的失败任务重新排队，执行时间在 retry-failed-spread-minutes 内随机分散
+     * @return 重新排队的任务数
+     */
+    public int retryFailedTasks() {
+        LocalDateTime now = LocalDateTime.now();
+        int retried = taskMapper.retryFailedTasks(now, now.minusHours(retryFailedWindowHours),
+            TimeUnit.MINUTES.toSeconds(retryFailedSpreadMinutes));
+        logger.info("🔄 失败任务已重新排队: " + retried + " 个");
+        return retried;
+    }
+}
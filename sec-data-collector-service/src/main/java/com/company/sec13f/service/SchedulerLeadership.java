@@ -0,0 +1,122 @@
+package com.company.sec13f.service;
+
+import com.company.sec13f.repository.mapper.SchedulerLeaderMapper;
+import com.company.sec13f.service.util.Logger;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 调度主节点选举（基于数据库租约行）
+ *
+ * 多节点部署时所有节点都认领并执行任务，但只有持有 scheduler_leader 租约的节点执行定时调度：
+ * 租约过期任务的回收、任务归档、定时抓取和失败任务重试等，避免每个节点各执行一遍。
+ * 各节点每 renew-interval-ms 尝试抢占或续约，主节点宕机后最多 ttl-seconds 由其他节点接管；
+ * 本地只在上次续约成功后的 ttl-seconds 内认为自己是主节点，与数据库失联时自动放弃。
+ *
+ * sec-collector.scheduler.leader-election.enabled=false 时（单节点部署）本节点始终是主节点。
+ */
+@Component
+public class SchedulerLeadership implements DisposableBean {
+
+    private static final String LEASE_NAME = "scheduler";
+
+    private final SchedulerLeaderMapper leaderMapper;
+    private final Logger logger;
+    private final boolean enabled;
+    private final long ttlSeconds;
+    private final String nodeId;
+
+    private volatile long leaseValidUntilNanos;
+    private volatile boolean leader;
+
+    @Autowired
+    public SchedulerLeadership(SchedulerLeaderMapper leaderMapper,
+                               @Value("${sec-collector.scheduler.leader-election.enabled:true}") boolean enabled,
+                               @Value("${sec-collector.scheduler.leader-election.ttl-seconds:30}") long ttlSeconds,
+                               @Value("${sec-collector.task.node-id:}") String nodeId) {
+        this.leaderMapper = leaderMapper;
+        this.logger = Logger.getInstance();
+        this.enabled = enabled;
+        this.ttlSeconds = Math.max(5, ttlSeconds);
+        this.nodeId = nodeId != null && !nodeId.trim().isEmpty()
+            ? nodeId.trim() : ManagementFactory.getRuntimeMXBean().getName();
+    }
+
+    /**
+     * 本节点当前是否为调度主节点，定时调度任务执行前检查
+     */
+    public boolean isLeader() {
+        if (!enabled) {
+            return true;
+        }
+        if (leader && System.nanoTime() - leaseValidUntilNanos >= 0) {
+            leader = false;
+            logger.warn("⚠️ 调度主节点租约已过期未能续约，暂停定时调度: " + nodeId);
+        }
+        return leader;
+    }
+
+    /**
+     * 当前持有租约的节点（未开启选举时为本节点），查询失败时返回null
+     */
+    public String getLeaderId() {
+        if (!enabled) {
+            return nodeId;
+        }
+        try {
+            return leaderMapper.selectActiveOwner(LEASE_NAME);
+        } catch (Exception e) {
+            logger.warn("⚠️ 查询调度主节点失败: " + e.getMessage());
+            return null;
+        }
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * 抢占或续约主节点租约
+     */
+    @Scheduled(initialDelay = 0, fixedDelayString = "${sec-collector.scheduler.leader-election.renew-interval-ms:10000}")
+    public void renew() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            long startNanos = System.nanoTime();
+            leaderMapper.acquireOrRenew(LEASE_NAME, nodeId, ttlSeconds);
+            boolean acquired = nodeId.equals(leaderMapper.selectActiveOwner(LEASE_NAME));
+            if (acquired) {
+                // 从发起续约时算起，保证本地认定的有效期不会晚于数据库中的到期时间
+                leaseValidUntilNanos = startNanos + TimeUnit.SECONDS.toNanos(ttlSeconds);
+            }
+            if (acquired != leader) {
+                logger.info(acquired ? "👑 本节点成为调度主节点: " + nodeId : "👥 本节点不再是调度主节点: " + nodeId);
+            }
+            leader = acquired;
+        } catch (Exception e) {
+            logger.error("❌ 调度主节点租约续约失败", e);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        if (!enabled || !leader) {
+            return;
+        }
+        leader = false;
+        try {
+            leaderMapper.release(LEASE_NAME, nodeId);
+            logger.info("🛑 已释放调度主节点租约: " + nodeId);
+        } catch (Exception e) {
+            logger.warn("⚠️ 释放调度主节点租约失败，其他节点将在租约到期后接管: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.company.sec13f.service;
+
+import com.company.sec13f.repository.mapper.TaskMapper;
+import com.company.sec13f.service.util.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 任务归档服务
+ *
+ * 定期把结束超过保留期的任务（COMPLETED/FAILED）从tasks移入tasks_archive，
+ * 使调度和任务列表查询只面对近期任务。每批在一个事务中完成复制和删除。
+ */
+@Service
+public class TaskArchiveService {
+
+    private final TaskMapper taskMapper;
+    private final SchedulerLeadership leadership;
+    private final TransactionTemplate transactionTemplate;
+    private final Logger logger;
+    private final boolean enabled;
+    private final int retentionDays;
+    private final int batchSize;
+
+    @Autowired
+    public TaskArchiveService(TaskMapper taskMapper, PlatformTransactionManager transactionManager,
+                              SchedulerLeadership leadership,
+                              @Value("${sec-collector.task.archive.enabled:true}") boolean enabled,
+                              @Value("${sec-collector.task.archive.retention-days:7}") int retentionDays,
+                              @Value("${sec-collector.task.archive.batch-size:1000}") int batchSize) {
+        this.taskMapper = taskMapper;
+        this.leadership = leadership;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.logger = Logger.getInstance();
+        this.enabled = enabled;
+        this.retentionDays = retentionDays;
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    /**
+     * 定时归档（多节点部署时只在调度主节点执行）
+     */
+    @Scheduled(cron = "${sec-collector.task.archive.cron:0 30 3 * * ?}")
+    public void scheduledArchive() {
+        if (!enabled || !leadership.isLeader()) {
+            return;
+        }
+        try {
+            archiveFinishedTasks();
+        } catch (Exception e) {
+            logger.error("❌ 任务归档失败", e);
+        }
+    }
+
+    /**
+     * 归档结束时间早于保留期的任务
+     * @return 归档的任务数
+     */
+    public int archiveFinishedTasks() {
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(retentionDays);
+        logger.info("🗄️ 开始归档任务，结束时间早于: " + cutoff);
+
+        int total = 0;
+        while (true) {
+            Integer archived = transactionTemplate.execute(status -> {
+                List<Long> ids = taskMapper.selectArchivableTaskIdsForUpdate(cutoff, batchSize);
+                if (ids.isEmpty()) {
+                    return 0;
+                }
+                taskMapper.insertArchiveByIds(ids);
+                taskMapper.deleteDependenciesByIds(ids);
+                return taskMapper.deleteByIds(ids);
+            });
+            if (archived == null || archived == 0) {
+                break;
+            }
+            total += archived;
+            if (archived < batchSize) {
+                break;
+            }
+        }
+
+        logger.info("✅ 任务归档完成，共归档 " + total + " 个任务");
+        return total;
+    }
+}
@@ -0,0 +1,143 @@
+package com.company.sec13f.service;
+
+import com.company.sec13f.repository.entity.Task;
+import com.company.sec13f.repository.enums.TaskType;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 按任务类型统计的执行指标（Micrometer），通过 /actuator/metrics 和 /api/tasks/metrics 查看
+ *
+ * <ul>
+ *   <li>sec.task.queue.wait：排队时间，从任务可执行（创建时间或重试到期时间）到开始执行，含线程池队列等待</li>
+ *   <li>sec.task.execution：执行时间，按结果（COMPLETED/RETRY/FAILED）区分</li>
+ *   <li>sec.task.retry：重试次数，按失败原因（TRANSIENT/RATE_LIMITED）区分</li>
+ * </ul>
+ * 以上指标均带type标签；上下文中没有MeterRegistry时（如非Web环境）使用进程内的SimpleMeterRegistry。
+ */
+@Component
+public class TaskMetrics {
+
+    static final String QUEUE_WAIT = "sec.task.queue.wait";
+    static final String EXECUTION = "sec.task.execution";
+    static final String RETRY = "sec.task.retry";
+    private static final double[] PERCENTILES = {0.5, 0.95, 0.99};
+
+    private final MeterRegistry registry;
+
+    @Autowired
+    public TaskMetrics(ObjectProvider<MeterRegistry> registryProvider) {
+        this.registry = registryProvider.getIfAvailable(SimpleMeterRegistry::new);
+    }
+
+    /**
+     * 任务开始执行：记录排队时间
+     */
+    public void recordStarted(Task task) {
+        LocalDateTime readyAt = task.getCreatedAt();
+        if (task.getNextExecuteTime() != null && (readyAt == null || task.getNextExecuteTime().isAfter(readyAt))) {
+            readyAt = task.getNextExecuteTime();
+        }
+        if (readyAt == null) {
+            return;
+        }
+        Duration wait = Duration.between(readyAt, LocalDateTime.now());
+        queueWaitTimer(task.getTaskType()).record(wait.isNegative() ? Duration.ZERO : wait);
+    }
+
+    /**
+     * 任务执行结束：按最终状态记录执行时间
+     * @param runNanos 从开始执行到结束的纳秒数
+     */
+    public void recordFinished(Task task, long runNanos) {
+        Timer.builder(EXECUTION)
+            .description("任务执行时间")
+            .tag("type", task.getTaskType().name())
+            .tag("outcome", task.getStatus().name())
+            .publishPercentiles(PERCENTILES)
+            .publishPercentileHistogram()
+            .register(registry)
+            .record(Math.max(0, runNanos), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * 任务失败后安排重试
+     */
+    public void recordRetry(TaskType taskType, TaskRetryPolicies.FailureKind kind) {
+        Counter.builder(RETRY)
+            .description("任务重试次数")
+            .tag("type", taskType.name())
+            .tag("kind", kind.name())
+            .register(registry)
+            .increment();
+    }
+
+    /**
+     * 各任务类型的指标汇总（时间单位：毫秒）
+     */
+    public Map<String, Object> snapshot() {
+        Map<String, Map<String, Object>> byType = new TreeMap<>();
+        for (Timer timer : registry.find(QUEUE_WAIT).timers()) {
+            typeEntry(byType, timer.getId().getTag("type")).put("queueWait", summarize(timer));
+        }
+        for (Timer timer : registry.find(EXECUTION).timers()) {
+            Map<String, Object> entry = typeEntry(byType, timer.getId().getTag("type"));
+            @SuppressWarnings("unchecked")
+            Map<String, Object> execution = (Map<String, Object>) entry.computeIfAbsent("execution", key -> new TreeMap<>());
+            execution.put(timer.getId().getTag("outcome"), summarize(timer));
+        }
+        for (Counter counter : registry.find(RETRY).counters()) {
+            Map<String, Object> entry = typeEntry(byType, counter.getId().getTag("type"));
+            @SuppressWarnings("unchecked")
+            Map<String, Object> retries = (Map<String, Object>) entry.computeIfAbsent("retries", key -> new TreeMap<>());
+            retries.put(counter.getId().getTag("kind"), (long) counter.count());
+        }
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("timeUnit", "ms");
+        result.put("byType", byType);
+        return result;
+    }
+
+    private Timer queueWaitTimer(TaskType taskType) {
+        return Timer.builder(QUEUE_WAIT)
+            .description("任务从可执行到开始执行的等待时间")
+            .tag("type", taskType.name())
+            .publishPercentiles(PERCENTILES)
+            .publishPercentileHistogram()
+            .register(registry);
+    }
+
+    private static Map<String, Object> typeEntry(Map<String, Map<String, Object>> byType, String taskType) {
+        return byType.computeIfAbsent(taskType, type -> new LinkedHashMap<>());
+    }
+
+    private static Map<String, Object> summarize(Timer timer) {
+        HistogramSnapshot snapshot = timer.takeSnapshot();
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("count", snapshot.count());
+        summary.put("mean", round(snapshot.mean(TimeUnit.MILLISECONDS)));
+        summary.put("max", round(snapshot.max(TimeUnit.MILLISECONDS)));
+        for (ValueAtPercentile percentile : snapshot.percentileValues()) {
+            summary.put("p" + Math.round(percentile.percentile() * 100), round(percentile.value(TimeUnit.MILLISECONDS)));
+        }
+        return summary;
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 10) / 10.0;
+    }
+}
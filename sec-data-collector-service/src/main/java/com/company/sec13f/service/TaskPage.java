@@ -0,0 +1,35 @@
+package com.company.sec13f.service;
+
+import com.company.sec13f.repository.entity.Task;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 任务列表的一页结果
+ */
+public class TaskPage {
+
+    private final List<Task> tasks;
+    private final Long nextCursor;
+
+    public TaskPage(List<Task> tasks, Long nextCursor) {
+        this.tasks = Collections.unmodifiableList(tasks);
+        this.nextCursor = nextCursor;
+    }
+
+    public List<Task> getTasks() {
+        return tasks;
+    }
+
+    /**
+     * 下一页的游标（本页最后一条任务的ID），没有更多任务时为null
+     */
+    public Long getNextCursor() {
+        return nextCursor;
+    }
+
+    public boolean hasMore() {
+        return nextCursor != null;
+    }
+}
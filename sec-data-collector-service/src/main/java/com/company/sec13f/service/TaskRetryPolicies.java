@@ -0,0 +1,118 @@
+package com.company.sec13f.service;
+
+import com.company.sec13f.repository.enums.TaskType;
+import com.company.sec13f.service.plugin.TaskResult;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 按任务类型配置的重试策略
+ *
+ * 未配置的类型使用default配置：
+ * <pre>
+ * sec-collector.task.retry.SCRAP_HOLDING.max-retries=5
+ * sec-collector.task.retry.SCRAP_HOLDING.base-delay-seconds=120
+ * sec-collector.task.retry.SCRAP_HOLDING.multiplier=3
+ * sec-collector.task.retry.SCRAP_HOLDING.max-delay-seconds=7200
+ * sec-collector.task.retry.SCRAP_HOLDING.jitter=0.3
+ * sec-collector.task.retry.SCRAP_HOLDING.rate-limited-factor=4
+ * </pre>
+ * 失败按原因分类：插件明确返回不可重试、或SEC返回400/404/410的请求直接失败；
+ * SEC返回429/403（超出访问频率）时按 rate-limited-factor 延长等待；其余（超时、连接失败、5xx等）正常退避重试。
+ */
+@Component
+public class TaskRetryPolicies {
+
+    private static final String PREFIX = "sec-collector.task.retry.";
+    private static final int DEFAULT_MAX_RETRIES = 3;
+    private static final long DEFAULT_BASE_DELAY_SECONDS = 60;
+    private static final double DEFAULT_MULTIPLIER = 2.0;
+    private static final long DEFAULT_MAX_DELAY_SECONDS = 3600;
+    private static final double DEFAULT_JITTER = 0.2;
+    private static final double DEFAULT_RATE_LIMITED_FACTOR = 4.0;
+
+    /** RealSECScraper在非200响应时抛出 "SEC request failed with status: NNN" */
+    private static final Pattern HTTP_STATUS_PATTERN = Pattern.compile("status: (\\d{3})");
+
+    /**
+     * 失败原因分类
+     */
+    public enum FailureKind {
+        /** 临时故障（网络超时、连接失败、5xx等），正常退避重试 */
+        TRANSIENT,
+        /** 被SEC限流，延长退避时间 */
+        RATE_LIMITED,
+        /** 重试也不会成功（参数错误、资源不存在等） */
+        PERMANENT
+    }
+
+    private final Environment environment;
+    private final Map<TaskType, RetryPolicy> policies = new ConcurrentHashMap<>();
+
+    @Autowired
+    public TaskRetryPolicies(Environment environment) {
+        this.environment = environment;
+    }
+
+    /**
+     * 获取任务类型的重试策略
+     */
+    public RetryPolicy policyFor(TaskType taskType) {
+        return policies.computeIfAbsent(taskType, this::createPolicy);
+    }
+
+    /**
+     * 根据失败结果判断失败原因
+     */
+    public FailureKind classify(TaskResult result) {
+        if (!result.isRetryable()) {
+            return FailureKind.PERMANENT;
+        }
+        Integer httpStatus = findHttpStatus(result.getMessage());
+        for (Throwable error = result.getError(); httpStatus == null && error != null; error = error.getCause()) {
+            httpStatus = findHttpStatus(error.getMessage());
+        }
+        if (httpStatus == null) {
+            return FailureKind.TRANSIENT;
+        }
+        if (httpStatus == 429 || httpStatus == 403) {
+            return FailureKind.RATE_LIMITED;
+        }
+        if (httpStatus == 400 || httpStatus == 404 || httpStatus == 410) {
+            return FailureKind.PERMANENT;
+        }
+        return FailureKind.TRANSIENT;
+    }
+
+    private static Integer findHttpStatus(String message) {
+        if (message == null) {
+            return null;
+        }
+        Matcher matcher = HTTP_STATUS_PATTERN.matcher(message);
+        return matcher.find() ? Integer.valueOf(matcher.group(1)) : null;
+    }
+
+    private RetryPolicy createPolicy(TaskType taskType) {
+        return new RetryPolicy(
+            getProperty(taskType, "max-retries", Integer.class, DEFAULT_MAX_RETRIES),
+            getProperty(taskType, "base-delay-seconds", Long.class, DEFAULT_BASE_DELAY_SECONDS),
+            getProperty(taskType, "multiplier", Double.class, DEFAULT_MULTIPLIER),
+            getProperty(taskType, "max-delay-seconds", Long.class, DEFAULT_MAX_DELAY_SECONDS),
+            getProperty(taskType, "jitter", Double.class, DEFAULT_JITTER),
+            getProperty(taskType, "rate-limited-factor", Double.class, DEFAULT_RATE_LIMITED_FACTOR));
+    }
+
+    private <T> T getProperty(TaskType taskType, String key, Class<T> type, T defaultValue) {
+        T value = environment.getProperty(PREFIX + taskType.name() + "." + key, type);
+        if (value == null) {
+            value = environment.getProperty(PREFIX + "default." + key, type, defaultValue);
+        }
+        return value;
+    }
+}
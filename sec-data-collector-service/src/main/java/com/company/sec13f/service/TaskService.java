@@ -1,44 +1,98 @@
 package com.company.sec13f.service;
 
+import com.company.sec13f.repository.entity.Company;
 import com.company.sec13f.repository.entity.Task;
-import com.company.sec13f.repository.enums.TaskStatus;
 import com.company.sec13f.repository.enums.TaskType;
 import com.company.sec13f.repository.mapper.TaskMapper;
+import com.company.sec13f.repository.param.TaskQueryParam;
+import com.company.sec13f.service.plugin.TaskParameters;
 import com.company.sec13f.service.plugin.TaskProcessPlugin;
 import com.company.sec13f.service.plugin.TaskResult;
 import com.company.sec13f.service.util.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.InitializingBean;
 
+import java.lang.management.ManagementFactory;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 
 /**
  * 任务服务 - 负责任务的调度执行
  */
 @Service
-public class TaskService implements InitializingBean {
+public class TaskService implements InitializingBean, DisposableBean {
     
     private final Map<TaskType, TaskProcessPlugin> pluginMap = new HashMap<>();
     private final TaskMapper taskMapper;
+    private final TaskSubmitter taskSubmitter;
     private final Logger logger;
-    private final ExecutorService executorService;
+    private final TaskWorkerPools workerPools;
+    private final TaskRetryPolicies retryPolicies;
+    private final TaskStatusWriter statusWriter;
+    private final TaskMetrics taskMetrics;
+    private final SchedulerLeadership leadership;
     private final List<TaskProcessPlugin> plugins;
+    private final TransactionTemplate transactionTemplate;
+    private final String ownerId;
+    private final int claimBatchSize;
+    private final long leaseMinutes;
+    private final long drainTimeoutSeconds;
+    private static final int BATCH_ENQUEUE_CHUNK_SIZE = 500;
+    private static final int LEASE_RENEW_CHUNK_SIZE = 500;
+    private static final int DEFAULT_PAGE_SIZE = 100;
+    private static final int MAX_PAGE_SIZE = 500;
+    
+    private final Map<String, RunningTask> runningTasks = new ConcurrentHashMap<>();
+    
+    private volatile Thread dispatcherThread;
+    private volatile boolean dispatcherRunning;
+    private volatile boolean draining;
     
     @Autowired
-    public TaskService(TaskMapper taskMapper, List<TaskProcessPlugin> plugins) {
+    public TaskService(TaskMapper taskMapper, TaskSubmitter taskSubmitter, TaskWorkerPools workerPools,
+                       TaskRetryPolicies retryPolicies, TaskStatusWriter statusWriter, TaskMetrics taskMetrics,
+                       SchedulerLeadership leadership, List<TaskProcessPlugin> plugins,
+                       PlatformTransactionManager transactionManager,
+                       @Value("${sec-collector.task.node-id:}") String nodeId,
+                       @Value("${sec-collector.task.claim-batch-size:20}") int claimBatchSize,
+                       @Value("${sec-collector.task.lease-minutes:2}") long leaseMinutes,
+                       @Value("${sec-collector.task.drain-timeout-seconds:30}") long drainTimeoutSeconds) {
         this.taskMapper = taskMapper;
+        this.taskSubmitter = taskSubmitter;
         this.plugins = plugins;
         this.logger = Logger.getInstance();
-        this.executorService = Executors.newFixedThreadPool(3);
+        this.workerPools = workerPools;
+        this.retryPolicies = retryPolicies;
+        this.statusWriter = statusWriter;
+        this.taskMetrics = taskMetrics;
+        this.leadership = leadership;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.ownerId = nodeId != null && !nodeId.trim().isEmpty()
+            ? nodeId.trim() : ManagementFactory.getRuntimeMXBean().getName();
+        this.claimBatchSize = claimBatchSize;
+        this.leaseMinutes = leaseMinutes;
+        this.drainTimeoutSeconds = Math.max(0, drainTimeoutSeconds);
+        logger.info("🏷️ 任务认领节点: " + ownerId + ", 每批认领: " + claimBatchSize + ", 租约: " + leaseMinutes + "分钟");
         
         // 注册插件信息日志
         logger.info("🔧 TaskService构造函数调用 - 注入的插件数量: " + (plugins != null ? plugins.size() : "null"));
@@ -91,18 +145,212 @@ public class TaskService implements InitializingBean {
             if (registeredCount > 0) {
                 logger.info("✅ TaskService初始化成功，注册了 " + registeredCount + " 个插件");
                 // 打印所有已注册的插件
-                for (Map.Entry<TaskType, TaskProcessPlugin> entry : pluginMap.entrySet()) {
-                    logger.info("  ➤ " + entry.getKey() + " -> " + entry.getValue().getClass().getSimpleName());
+                for (TaskType taskType : workerPools.sortByPriority(pluginMap.keySet())) {
+                    logger.info("  ➤ " + taskType + " -> " + pluginMap.get(taskType).getClass().getSimpleName()
+                              + " (线程数: " + workerPools.getPoolSize(taskType)
+                              + ", 优先级: " + workerPools.getPriority(taskType) + ")");
+                    logger.info("    重试策略: " + retryPolicies.policyFor(taskType));
                 }
             } else {
                 logger.error("❌ TaskService初始化警告：没有成功注册任何插件！");
             }
+            
+            recoverOwnedTasks();
+            startDispatcher();
+            // 热启动：不等兜底轮询，派发线程启动后立即认领积压任务（包括上次停机时归还的任务）
+            taskSubmitter.notifyBacklog();
         } catch (Exception e) {
             logger.error("❌ TaskService初始化失败", e);
             throw e;
         }
     }
     
+    @Override
+    public void destroy() {
+        drain();
+    }
+    
+    /**
+     * 停机排空：停止认领新任务，最多等待 drain-timeout-seconds 让已认领的任务执行完，
+     * 仍未结束的任务归还为PENDING（立即可被其他节点或重启后的本节点认领），不计入重试次数
+     */
+    public void drain() {
+        if (draining) {
+            return;
+        }
+        draining = true;
+        dispatcherRunning = false;
+        Thread thread = dispatcherThread;
+        if (thread != null) {
+            thread.interrupt();
+        }
+        logger.info("🛑 TaskService已停止认领任务，等待执行中的任务: " + runningTasks.size() + " 个 (最多"
+                  + drainTimeoutSeconds + "秒)");
+        
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(drainTimeoutSeconds);
+        try {
+            while (!runningTasks.isEmpty() && System.nanoTime() - deadline < 0) {
+                Thread.sleep(200);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        checkpointRunningTasks();
+    }
+    
+    /**
+     * 是否处于停机排空状态（不再认领任务）
+     */
+    public boolean isDraining() {
+        return draining;
+    }
+    
+    /**
+     * 把本节点仍未结束的任务归还为PENDING；尚未开始的不再执行，执行中的被中断，其结果不再写回
+     */
+    private void checkpointRunningTasks() {
+        List<String> taskIds = new ArrayList<>();
+        for (RunningTask running : runningTasks.values()) {
+            running.cancel();
+            taskIds.add(running.getTaskId());
+        }
+        if (taskIds.isEmpty()) {
+            logger.info("✅ 执行中的任务已全部结束");
+            return;
+        }
+        int released = 0;
+        try {
+            for (int from = 0; from < taskIds.size(); from += LEASE_RENEW_CHUNK_SIZE) {
+                List<String> chunk = taskIds.subList(from, Math.min(from + LEASE_RENEW_CHUNK_SIZE, taskIds.size()));
+                released += taskMapper.releaseClaims(chunk, ownerId, LocalDateTime.now());
+            }
+            logger.warn("↩️ 停机归还未完成的任务: " + released + " 个");
+        } catch (Exception e) {
+            logger.error("❌ 停机归还任务失败，将在租约过期后由回收器重新排队: " + taskIds.size() + " 个", e);
+        }
+        runningTasks.keySet().removeAll(taskIds);
+    }
+    
+    /**
+     * 启动时回收本节点上次运行遗留的RUNNING任务（进程崩溃未能归还），不等租约过期；
+     * 仅在配置了固定的 node-id 时生效（默认的 pid@hostname 每次启动都不同）
+     */
+    private void recoverOwnedTasks() {
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            int expired = taskMapper.expireLeasesOwnedBy(ownerId, now);
+            if (expired > 0) {
+                logger.warn("♻️ 发现本节点上次运行遗留的任务: " + expired + " 个，立即重新排队");
+                requeueExpiredLeases(now, false);
+            }
+        } catch (Exception e) {
+            logger.error("❌ 回收本节点遗留任务失败，将在租约过期后由回收器处理", e);
+        }
+    }
+    
+    /**
+     * 启动派发线程：新提交的任务由TaskSubmitter放入派发队列后立即认领执行
+     */
+    private void startDispatcher() {
+        dispatcherRunning = true;
+        Thread thread = new Thread(this::runDispatcher, "task-dispatcher");
+        thread.setDaemon(true);
+        thread.start();
+        dispatcherThread = thread;
+        logger.info("📮 任务派发线程已启动");
+    }
+    
+    private void runDispatcher() {
+        List<TaskSubmitter.SubmittedTask> batch = new ArrayList<>();
+        while (dispatcherRunning) {
+            try {
+                TaskSubmitter.SubmittedTask submitted = taskSubmitter.pollSubmitted(1, TimeUnit.SECONDS);
+                if (pluginMap.isEmpty()) {
+                    if (submitted != null) {
+                        logger.warn("⚠️ 没有注册任何任务处理插件，新任务留待定时轮询处理: " + submitted.getTaskId());
+                    }
+                    continue;
+                }
+                if (submitted != null) {
+                    batch.add(submitted);
+                    taskSubmitter.drainSubmitted(batch, Math.max(claimBatchSize - 1, 0));
+                    dispatchSubmitted(batch);
+                }
+                if (taskSubmitter.takeBacklogSignal()) {
+                    dispatchBacklog();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                logger.error("❌ 任务派发失败，相关任务将由定时轮询兜底", e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+    
+    /**
+     * 认领并执行派发队列中的任务，每种类型最多认领其线程池的空闲容量；
+     * 线程池已满的类型不认领，设置积压信号，由积压派发按空闲容量分批认领
+     */
+    private void dispatchSubmitted(List<TaskSubmitter.SubmittedTask> submittedTasks) {
+        Map<TaskType, Integer> remainingCapacity = new HashMap<>();
+        List<Task> claimedTasks = new ArrayList<>(submittedTasks.size());
+        int deferred = 0;
+        for (TaskSubmitter.SubmittedTask submitted : submittedTasks) {
+            TaskType taskType = submitted.getTaskType();
+            int capacity = remainingCapacity.computeIfAbsent(taskType, this::getClaimCapacity);
+            if (capacity <= 0) {
+                deferred++;
+                continue;
+            }
+            Task task = claimTask(submitted.getTaskId());
+            if (task != null) {
+                logger.debug("⚡ 即时派发任务: " + task.getTaskId() + " [" + task.getTaskType() + "]");
+                claimedTasks.add(task);
+                remainingCapacity.put(taskType, capacity - 1);
+            }
+        }
+        dispatchClaimed(claimedTasks);
+        
+        if (deferred > 0) {
+            logger.debug("⏸️ 线程池已满，新任务留待积压派发: " + deferred + " 个");
+            taskSubmitter.notifyBacklog();
+        }
+    }
+    
+    /**
+     * 该类型本轮还能认领的任务数：线程池空闲容量，批量执行的类型每个空闲名额可容纳一批任务
+     */
+    private int getClaimCapacity(TaskType taskType) {
+        int freeCapacity = workerPools.getFreeCapacity(taskType);
+        return isBatched(taskType) ? freeCapacity * workerPools.getBatchSize(taskType) : freeCapacity;
+    }
+    
+    /**
+     * 认领并执行积压任务，数量不超过各线程池的空闲容量；
+     * 本轮有认领或有线程池已满时保留积压信号，下一轮（最多1秒后）继续，直到积压清空
+     */
+    private void dispatchBacklog() {
+        List<Task> claimedTasks = claimTasks(claimBatchSize);
+        dispatchClaimed(claimedTasks);
+        
+        boolean anyPoolFull = false;
+        for (TaskType taskType : pluginMap.keySet()) {
+            if (workerPools.getFreeCapacity(taskType) == 0) {
+                anyPoolFull = true;
+                break;
+            }
+        }
+        if (!claimedTasks.isEmpty() || anyPoolFull) {
+            if (!claimedTasks.isEmpty()) {
+                logger.info("📦 派发积压任务: " + claimedTasks.size() + " 个");
+            }
+            taskSubmitter.notifyBacklog();
+        }
+    }
+    
     /**
      * 注册任务处理插件
      */
@@ -146,10 +394,30 @@ public class TaskService implements InitializingBean {
     }
     
     /**
-     * 执行单个任务
+     * 执行单个任务（提交到该任务类型的线程池）
+     * 线程池已满时释放认领，任务回到PENDING由后续调度再次认领
      */
     public CompletableFuture<TaskResult> handleTask(Task task) {
+        RunningTask running = trackRunning(task);
+        try {
+            return submitTask(task, running);
+        } catch (RejectedExecutionException e) {
+            logger.warn("⏸️ 任务线程池已满，释放认领: " + task.getTaskId() + " [" + task.getTaskType() + "] - " + e.getMessage());
+            untrackRunning(running);
+            taskMapper.releaseClaim(task.getTaskId(), ownerId);
+            CompletableFuture<TaskResult> rejected = new CompletableFuture<>();
+            rejected.complete(TaskResult.failure("任务线程池已满: " + e.getMessage()));
+            return rejected;
+        }
+    }
+    
+    private CompletableFuture<TaskResult> submitTask(Task task, RunningTask running) {
         return CompletableFuture.supplyAsync(() -> {
+            if (!running.start(Thread.currentThread(), workerPools.getTimeoutSeconds(task.getTaskType()))) {
+                logger.info("↩️ 任务已在停机时归还，不再执行: " + task.getTaskId());
+                return TaskResult.failure("节点停机，任务已归还");
+            }
+            taskMetrics.recordStarted(task);
             try {
                 logger.info("🎯 开始处理任务: " + task.getTaskId() + " [" + task.getTaskType() + "] 状态: " + task.getStatus());
                 
@@ -165,9 +433,10 @@ public class TaskService implements InitializingBean {
                     String errorMsg = "未找到类型为 " + task.getTaskType() + " 的任务处理插件";
                     logger.error("❌ " + errorMsg);
                     logger.error("🔍 当前已注册的插件: " + pluginMap.keySet());
-                    task.setFailed(errorMsg);
-                    taskMapper.update(task);
-                    return TaskResult.failure(errorMsg);
+                    // 没有插件的任务重试也不会成功，按永久失败处理（不参与定时重试），与其他结束状态一样记录指标并写回
+                    TaskResult failure = TaskResult.permanentFailure(errorMsg);
+                    applyResult(task, running, failure);
+                    return failure;
                 }
                 
                 logger.info("🚀 开始执行任务: " + task.getTaskId() + " [" + task.getTaskType() + "] 使用插件: " + plugin.getClass().getSimpleName());
@@ -177,41 +446,202 @@ public class TaskService implements InitializingBean {
                 TaskResult result = plugin.handleTask(task);
                 logger.debug("📊 插件返回结果: success=" + result.isSuccess() + ", message=" + result.getMessage());
                 
-                // 更新任务状态
-                if (result.isSuccess()) {
-                    task.setCompleted(result.getMessage());
-                    logger.info("✅ 任务完成: " + task.getTaskId() + " - " + result.getMessage());
-                } else {
-                    // 检查是否需要重试
-                    if (task.needsRetry(3)) { // 最大重试3次
-                        task.setForRetry(result.getMessage());
-                        logger.warn("🔄 任务需要重试: " + task.getTaskId() + " (第" + task.getRetryTimes() + "次) - " + result.getMessage());
-                    } else {
-                        task.setFailed(result.getMessage());
-                        logger.error("❌ 任务最终失败: " + task.getTaskId() + " - " + result.getMessage());
-                    }
-                }
-                
-                logger.debug("💾 更新任务状态到数据库: " + task.getTaskId() + " -> " + task.getStatus());
-                taskMapper.update(task);
-                
+                result = timeoutResultIfTimedOut(running, result);
+                applyResult(task, running, result);
                 return result;
                 
             } catch (Exception e) {
                 String errorMsg = "任务执行异常: " + e.getMessage();
                 logger.error("💥 任务执行异常: " + task.getTaskId() + " - " + errorMsg, e);
-                task.setFailed(errorMsg);
-                taskMapper.update(task);
-                return TaskResult.failure(errorMsg, e);
+                TaskResult failure = timeoutResultIfTimedOut(running, TaskResult.failure(errorMsg, e));
+                applyResult(task, running, failure);
+                return failure;
+            } finally {
+                untrackRunning(running);
+                Thread.interrupted(); // 清除超时中断可能残留的中断标记，避免影响线程池中的下一个任务
             }
-        }, executorService);
+        }, workerPools.executorFor(task.getTaskType()));
     }
     
     /**
-     * 定时调度任务
-     * 每分钟执行一次，捞取待执行和重试的任务
+     * 登记已认领的任务，从此由心跳续约直到执行结束
      */
-    @Scheduled(cron = "0 */1 * * * ?")
+    private RunningTask trackRunning(Task task) {
+        RunningTask running = new RunningTask(task.getTaskId());
+        runningTasks.put(task.getTaskId(), running);
+        return running;
+    }
+    
+    /**
+     * 任务执行结束或未能提交：停止续约和超时检查
+     */
+    private void untrackRunning(RunningTask running) {
+        running.finish();
+        runningTasks.remove(running.getTaskId(), running);
+    }
+    
+    /**
+     * 任务已被判定超时时，以超时失败代替插件返回的结果（插件可能在中断后返回任意结果），
+     * 并清除中断标记，避免随后的数据库写回因线程处于中断状态而失败
+     */
+    private TaskResult timeoutResultIfTimedOut(RunningTask running, TaskResult result) {
+        if (!running.isTimedOut()) {
+            return result;
+        }
+        Thread.interrupted();
+        return TaskResult.failure("任务执行超时: 超过 " + running.getTimeoutSeconds() + " 秒");
+    }
+    
+    /**
+     * 根据执行结果更新任务状态、记录执行指标并写回数据库
+     */
+    private void applyResult(Task task, RunningTask running, TaskResult result) {
+        if (running.isCancelled()) {
+            logger.info("↩️ 任务已在停机时归还，丢弃执行结果: " + task.getTaskId());
+            return;
+        }
+        if (result.isSuccess()) {
+            task.setCompleted(result.getMessage());
+            logger.info("✅ 任务完成: " + task.getTaskId() + " - " + result.getMessage());
+        } else {
+            // 按任务类型的重试策略决定是否重试及下次执行时间
+            RetryPolicy policy = retryPolicies.policyFor(task.getTaskType());
+            TaskRetryPolicies.FailureKind kind = retryPolicies.classify(result);
+            int retryTimes = task.getRetryTimes() != null ? task.getRetryTimes() : 0;
+            if (kind != TaskRetryPolicies.FailureKind.PERMANENT && policy.canRetry(retryTimes)) {
+                long delaySeconds = policy.nextDelaySeconds(retryTimes, kind == TaskRetryPolicies.FailureKind.RATE_LIMITED);
+                task.setForRetry(result.getMessage(), LocalDateTime.now().plusSeconds(delaySeconds));
+                taskMetrics.recordRetry(task.getTaskType(), kind);
+                logger.warn("🔄 任务需要重试: " + task.getTaskId() + " (第" + task.getRetryTimes() + "次, " + kind
+                          + ", " + delaySeconds + "秒后) - " + result.getMessage());
+            } else {
+                // 永久失败的任务记录为不可重试，定时重试不再把它重新排队
+                task.setFailed(result.getMessage(), kind != TaskRetryPolicies.FailureKind.PERMANENT);
+                logger.error("❌ 任务最终失败: " + task.getTaskId() + " (" + kind + ", 已重试" + retryTimes + "次) - "
+                           + result.getMessage());
+            }
+        }
+        
+        taskMetrics.recordFinished(task, running.getRunNanos());
+        logger.debug("💾 更新任务状态到数据库: " + task.getTaskId() + " -> " + task.getStatus());
+        writeBack(task);
+    }
+    
+    /**
+     * 以本节点的认领为条件写回任务状态，由TaskStatusWriter合并为批量更新异步写回；
+     * 任务已因租约过期被回收时丢弃结果
+     */
+    private void writeBack(Task task) {
+        statusWriter.write(task, ownerId);
+    }
+    
+    /**
+     * 分发已认领的任务：插件支持批量执行的类型按批提交，其余任务逐个提交
+     */
+    private void dispatchClaimed(List<Task> claimedTasks) {
+        Map<TaskType, List<Task>> batchedTasks = new LinkedHashMap<>();
+        for (Task task : claimedTasks) {
+            if (isBatched(task.getTaskType())) {
+                batchedTasks.computeIfAbsent(task.getTaskType(), type -> new ArrayList<>()).add(task);
+            } else {
+                handleTask(task);
+            }
+        }
+        for (Map.Entry<TaskType, List<Task>> entry : batchedTasks.entrySet()) {
+            List<Task> tasks = entry.getValue();
+            if (tasks.size() == 1) {
+                handleTask(tasks.get(0));
+                continue;
+            }
+            int batchSize = workerPools.getBatchSize(entry.getKey());
+            for (int from = 0; from < tasks.size(); from += batchSize) {
+                handleTaskBatch(entry.getKey(), tasks.subList(from, Math.min(from + batchSize, tasks.size())));
+            }
+        }
+    }
+    
+    /**
+     * 是否对该类型批量执行（插件支持批量执行且pools.<TYPE>.batch-size大于1）
+     */
+    private boolean isBatched(TaskType taskType) {
+        TaskProcessPlugin plugin = pluginMap.get(taskType);
+        return plugin != null && plugin.supportsBatch() && workerPools.getBatchSize(taskType) > 1;
+    }
+    
+    /**
+     * 批量执行同类型的任务：一批任务占用一个线程池名额，由插件的handleBatch一次处理
+     * 线程池已满时释放整批认领
+     */
+    public CompletableFuture<Void> handleTaskBatch(TaskType taskType, List<Task> tasks) {
+        List<Task> batch = new ArrayList<>(tasks);
+        TaskProcessPlugin plugin = pluginMap.get(taskType);
+        List<RunningTask> runningBatch = new ArrayList<>(batch.size());
+        for (Task task : batch) {
+            runningBatch.add(trackRunning(task));
+        }
+        try {
+            return CompletableFuture.runAsync(() -> {
+                long timeoutSeconds = workerPools.getTimeoutSeconds(taskType);
+                for (int i = 0; i < batch.size(); i++) {
+                    if (!runningBatch.get(i).start(Thread.currentThread(), timeoutSeconds)) {
+                        // 停机归还时整批一起取消
+                        logger.info("↩️ 批量任务已在停机时归还，不再执行: " + taskType + " " + batch.size() + " 个");
+                        return;
+                    }
+                    taskMetrics.recordStarted(batch.get(i));
+                }
+                try {
+                    logger.info("🚀 开始批量执行任务: " + taskType + " " + batch.size() + " 个 使用插件: " + plugin.getClass().getSimpleName());
+                    Map<String, TaskResult> results;
+                    TaskResult batchFailure = null;
+                    try {
+                        results = plugin.handleBatch(batch);
+                    } catch (Exception e) {
+                        logger.error("💥 批量执行任务异常: " + taskType, e);
+                        results = Collections.emptyMap();
+                        batchFailure = TaskResult.failure("批量执行异常: " + e.getMessage(), e);
+                    }
+                    for (int i = 0; i < batch.size(); i++) {
+                        Task task = batch.get(i);
+                        try {
+                            TaskResult result = results.get(task.getTaskId());
+                            if (result == null) {
+                                result = batchFailure != null ? batchFailure : TaskResult.failure("批量执行未返回该任务的结果");
+                            }
+                            RunningTask running = runningBatch.get(i);
+                            applyResult(task, running, timeoutResultIfTimedOut(running, result));
+                        } catch (Exception e) {
+                            logger.error("💥 更新任务状态失败: " + task.getTaskId(), e);
+                        }
+                    }
+                } finally {
+                    for (RunningTask running : runningBatch) {
+                        untrackRunning(running);
+                    }
+                    Thread.interrupted();
+                }
+            }, workerPools.executorFor(taskType));
+        } catch (RejectedExecutionException e) {
+            logger.warn("⏸️ 任务线程池已满，释放批量任务认领: " + taskType + " " + batch.size() + " 个 - " + e.getMessage());
+            for (RunningTask running : runningBatch) {
+                untrackRunning(running);
+            }
+            for (Task task : batch) {
+                taskMapper.releaseClaim(task.getTaskId(), ownerId);
+            }
+            CompletableFuture<Void> rejected = new CompletableFuture<>();
+            rejected.complete(null);
+            return rejected;
+        }
+    }
+    
+    /**
+     * 定时调度任务（兜底轮询）
+     * 新任务正常情况下由派发线程即时执行，这里负责捞起到期的重试任务、
+     * 派发队列丢失的任务（如进程重启）以及租约过期后被回收为RETRY的任务。
+     * 原子认领一批任务后再分发执行，已被认领（RUNNING）的任务不会被重复调度
+     */
+    @Scheduled(cron = "${sec-collector.task.recovery-poll-cron:0 */1 * * * ?}")
     public void scheduleTask() {
         try {
             logger.info("🕐 开始定时任务调度...");
@@ -223,38 +653,27 @@ public class TaskService implements InitializingBean {
                 return;
             }
             
-            // 获取待执行的任务 (PENDING状态)
-            List<Task> pendingTasks = taskMapper.selectPendingTasks();
-            logger.debug("🔍 查询到 " + pendingTasks.size() + " 个PENDING任务");
-            
-            // 获取需要重试的任务 (RETRY状态且next_execute_time已到期)
-            String currentTime = LocalDateTime.now().toString();
-            List<Task> retryTasks = taskMapper.selectRetryTasksReadyForExecution(currentTime);
-            logger.debug("🔍 查询到 " + retryTasks.size() + " 个RETRY任务（时间已到期）");
-            
-            int totalTasks = pendingTasks.size() + retryTasks.size();
-            if (totalTasks == 0) {
+            List<Task> claimedTasks = claimTasks(claimBatchSize);
+            if (claimedTasks.isEmpty()) {
                 logger.debug("💤 没有需要执行的任务，调度器空闲");
                 return;
             }
             
-            logger.info("📋 发现 " + totalTasks + " 个待执行任务 (待处理:" + pendingTasks.size() + ", 重试:" + retryTasks.size() + ")");
+            logger.info("📋 认领到 " + claimedTasks.size() + " 个待执行任务 (节点: " + ownerId + ")");
             
-            // 执行待处理任务
-            logger.debug("🚀 开始处理PENDING任务...");
-            pendingTasks.forEach(task -> {
-                logger.info("📝 调度PENDING任务: " + task.getTaskId() + " [" + task.getTaskType() + "]");
-                handleTask(task);
-            });
+            for (Task task : claimedTasks) {
+                if (task.getRetryTimes() != null && task.getRetryTimes() > 0) {
+                    logger.info("🔄 调度重试任务: " + task.getTaskId() + " [" + task.getTaskType() + "] (第" + task.getRetryTimes() + "次重试)");
+                } else {
+                    logger.info("📝 调度任务: " + task.getTaskId() + " [" + task.getTaskType() + "]");
+                }
+            }
+            dispatchClaimed(claimedTasks);
             
-            // 执行重试任务  
-            logger.debug("🔄 开始处理RETRY任务...");
-            retryTasks.forEach(task -> {
-                logger.info("🔄 调度RETRY任务: " + task.getTaskId() + " [" + task.getTaskType() + "] (第" + task.getRetryTimes() + "次重试)");
-                handleTask(task);
-            });
+            logger.info("✅ 定时任务调度完成，共分发 " + claimedTasks.size() + " 个任务");
             
-            logger.info("✅ 定时任务调度完成，共处理 " + totalTasks + " 个任务");
+            // 本轮认领到任务说明可能还有积压，交给派发线程按空闲容量继续认领
+            taskSubmitter.notifyBacklog();
             
         } catch (Exception e) {
             logger.error("❌ 定时任务调度失败", e);
@@ -262,18 +681,177 @@ public class TaskService implements InitializingBean {
     }
     
     /**
-     * 创建新任务
+     * 租约心跳：为本节点已认领、未结束的任务续约，并中断超过执行超时的任务
+     * 超时的任务不再续约，工作线程迟迟不退出时，租约到期后由回收器重新排队
      */
-    public String createTask(TaskType taskType, String taskParameters) {
+    @Scheduled(fixedDelayString = "${sec-collector.task.heartbeat-interval-ms:30000}")
+    public void heartbeat() {
+        if (runningTasks.isEmpty()) {
+            return;
+        }
         try {
-            Task task = new Task(java.util.UUID.randomUUID().toString(), taskType);
-            task.setTaskParameters(taskParameters);
-            
-            taskMapper.insert(task);
-            logger.info("💾 创建新任务: " + task.getTaskId() + " [" + taskType + "]");
-            
-            return task.getTaskId();
+            LocalDateTime now = LocalDateTime.now();
+            List<String> aliveTaskIds = new ArrayList<>(runningTasks.size());
+            for (RunningTask running : runningTasks.values()) {
+                if (running.isOverdue(now) && running.timeout()) {
+                    logger.warn("⏱️ 任务执行超时，中断执行线程: " + running.getTaskId()
+                              + " (超时: " + running.getTimeoutSeconds() + "秒)");
+                }
+                if (!running.isTimedOut()) {
+                    aliveTaskIds.add(running.getTaskId());
+                }
+            }
             
+            LocalDateTime leaseExpireTime = now.plusMinutes(leaseMinutes);
+            int renewed = 0;
+            for (int from = 0; from < aliveTaskIds.size(); from += LEASE_RENEW_CHUNK_SIZE) {
+                List<String> chunk = aliveTaskIds.subList(from, Math.min(from + LEASE_RENEW_CHUNK_SIZE, aliveTaskIds.size()));
+                renewed += taskMapper.renewLeases(chunk, ownerId, leaseExpireTime);
+            }
+            if (renewed < aliveTaskIds.size()) {
+                logger.warn("⚠️ 部分任务续约失败（租约已过期被回收）: " + (aliveTaskIds.size() - renewed) + " 个");
+            }
+            logger.debug("💓 任务租约续约: " + renewed + " 个, 到期时间: " + leaseExpireTime);
+        } catch (Exception e) {
+            logger.error("❌ 任务租约续约失败", e);
+        }
+    }
+    
+    /**
+     * 回收租约已过期的RUNNING任务（认领节点宕机、失联或任务超时卡死）
+     * 重试次数未用尽（按任务类型的重试策略）的任务回到RETRY并通知派发线程，否则标记为FAILED；
+     * 多节点部署时只在调度主节点执行
+     */
+    @Scheduled(fixedDelayString = "${sec-collector.task.lease-reaper-interval-ms:60000}")
+    public void reapExpiredLeases() {
+        if (!leadership.isLeader()) {
+            return;
+        }
+        try {
+            requeueExpiredLeases(LocalDateTime.now(), true);
+        } catch (Exception e) {
+            logger.error("❌ 回收租约过期任务失败", e);
+        }
+    }
+    
+    /**
+     * 把租约已过期的RUNNING任务按各类型的重试策略重新排队或标记为失败
+     * @param spread 是否把重新执行时间在一个基础退避间隔内随机分散（同一节点宕机时大量任务同时过期）
+     */
+    private void requeueExpiredLeases(LocalDateTime now, boolean spread) {
+        int reaped = 0;
+        for (TaskType taskType : TaskType.values()) {
+            RetryPolicy policy = retryPolicies.policyFor(taskType);
+            reaped += taskMapper.requeueExpiredLeases(taskType, now, policy.getMaxRetries(),
+                spread ? policy.nextDelaySeconds(0, false) : 1);
+        }
+        if (reaped > 0) {
+            logger.warn("♻️ 回收租约过期的任务: " + reaped + " 个");
+            taskSubmitter.notifyBacklog();
+            // 重试次数用尽被标记为失败的任务，其下游任务同样失败
+            statusWriter.failWaitingDependents();
+        }
+    }
+    
+    /**
+     * 本节点已认领、尚未结束的任务数
+     */
+    public int getRunningTaskCount() {
+        return runningTasks.size();
+    }
+    
+    /**
+     * 按任务类型优先级原子认领一批可执行任务
+     * 优先级高的类型先认领，只认领已注册插件的任务类型，
+     * 每种类型最多认领其线程池的空闲容量，线程池满时该类型不认领；
+     * 批量执行的类型每个空闲名额认领一批（pools.<TYPE>.batch-size个）任务
+     * @param limit 最多认领数量（所有类型合计）
+     * @return 已认领的任务（状态为RUNNING，ownerId为本节点）
+     */
+    public List<Task> claimTasks(int limit) {
+        List<Task> claimed = new ArrayList<>();
+        int remaining = limit;
+        for (TaskType taskType : workerPools.sortByPriority(pluginMap.keySet())) {
+            if (remaining <= 0) {
+                break;
+            }
+            int freeCapacity = workerPools.getFreeCapacity(taskType);
+            if (freeCapacity <= 0) {
+                logger.debug("⏸️ 线程池已满，本轮不认领: " + taskType);
+                continue;
+            }
+            if (isBatched(taskType)) {
+                // 批量执行时一批任务只占一个线程池名额
+                int batchSize = workerPools.getBatchSize(taskType);
+                int slots = Math.min(remaining, freeCapacity);
+                List<Task> batchTasks = claimTasks(taskType, slots * batchSize);
+                claimed.addAll(batchTasks);
+                remaining -= (batchTasks.size() + batchSize - 1) / batchSize;
+            } else {
+                List<Task> typeTasks = claimTasks(taskType, Math.min(remaining, freeCapacity));
+                claimed.addAll(typeTasks);
+                remaining -= typeTasks.size();
+            }
+        }
+        return claimed;
+    }
+    
+    /**
+     * 原子认领一批指定类型的可执行任务
+     * 在同一事务中用 SELECT ... FOR UPDATE SKIP LOCKED 锁定行并改为RUNNING，
+     * 多个节点并发认领时各自拿到不相交的任务集合
+     * @param taskType 任务类型，为null时不限类型
+     * @param limit 最多认领数量
+     * @return 已认领的任务（状态为RUNNING，ownerId为本节点）
+     */
+    public List<Task> claimTasks(TaskType taskType, int limit) {
+        if (limit <= 0 || draining) {
+            return Collections.emptyList();
+        }
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime leaseExpireTime = now.plusMinutes(leaseMinutes);
+        
+        List<Task> claimed = transactionTemplate.execute(status -> {
+            List<Long> ids = taskMapper.selectClaimableTaskIdsForUpdate(now, taskType, limit);
+            if (ids.isEmpty()) {
+                return Collections.<Task>emptyList();
+            }
+            taskMapper.markClaimed(ids, ownerId, leaseExpireTime, now);
+            return taskMapper.selectByIds(ids);
+        });
+        return claimed != null ? claimed : Collections.<Task>emptyList();
+    }
+    
+    /**
+     * 按任务ID认领单个任务
+     * @return 认领成功返回最新的任务记录，任务已被认领或不存在时返回null
+     */
+    public Task claimTask(String taskId) {
+        if (draining) {
+            return null;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        int claimed = taskMapper.claimByTaskId(taskId, ownerId, now.plusMinutes(leaseMinutes), now);
+        if (claimed == 0) {
+            logger.debug("🔒 任务已被认领或不可执行，跳过: " + taskId);
+            return null;
+        }
+        return taskMapper.selectByTaskId(taskId);
+    }
+    
+    /**
+     * 当前节点的认领标识
+     */
+    public String getOwnerId() {
+        return ownerId;
+    }
+    
+    /**
+     * 创建新任务并立即派发
+     */
+    public String createTask(TaskType taskType, String taskParameters) {
+        try {
+            return taskSubmitter.submit(taskType, taskParameters);
         } catch (Exception e) {
             logger.error("❌ 创建任务失败", e);
             throw new RuntimeException("Failed to create task", e);
@@ -281,10 +859,94 @@ public class TaskService implements InitializingBean {
     }
     
     /**
-     * 获取任务状态
+     * 创建依赖上游任务的新任务，上游任务全部完成后立即派发
+     * 可用于扇入：多个抓取任务完成后再执行一次汇总分析
+     * @param dependsOnTaskIds 上游任务ID
+     * @return 新任务ID；与未结束任务重复时返回null
+     */
+    public String createTask(TaskType taskType, String taskParameters, Collection<String> dependsOnTaskIds) {
+        try {
+            List<String> taskIds = taskSubmitter.submitDependent(taskType,
+                Collections.singletonList(taskParameters), dependsOnTaskIds);
+            return taskIds.isEmpty() ? null : taskIds.get(0);
+        } catch (Exception e) {
+            logger.error("❌ 创建下游任务失败", e);
+            throw new RuntimeException("Failed to create dependent task", e);
+        }
+    }
+    
+    /**
+     * 批量创建持仓抓取任务
+     * 同一请求中重复的CIK只创建一次，已有未结束任务（待执行/重试/执行中）的CIK跳过
+     * @param companies 要抓取的公司（cik必填，companyName为空时使用 Company_{cik}）
+     */
+    public BatchEnqueueResult createScrapingTasks(List<Company> companies) {
+        return createScrapingTasks(companies, 0);
+    }
+    
+    /**
+     * 批量创建持仓抓取任务，执行时间在 [现在, 现在 + spreadSeconds) 内均匀错开，
+     * 避免大批任务同时到期集中请求SEC；spreadSeconds为0时全部立即可执行
+     * @param companies 要抓取的公司（cik必填，companyName为空时使用 Company_{cik}）
+     * @param spreadSeconds 错开的时间窗口（秒）
+     */
+    public BatchEnqueueResult createScrapingTasks(List<Company> companies, long spreadSeconds) {
+        // 按去重键（CIK去掉前导0）合并请求内的重复条目
+        Map<String, TaskParameters> parametersByDedupKey = new LinkedHashMap<>();
+        int requested = 0;
+        for (Company company : companies) {
+            String cik = company.getCik() != null ? company.getCik().trim() : "";
+            if (cik.isEmpty()) {
+                continue;
+            }
+            requested++;
+            String companyName = company.getCompanyName() != null && !company.getCompanyName().trim().isEmpty()
+                ? company.getCompanyName().trim() : "Company_" + cik;
+            TaskParameters parameters = TaskParameters.forScraping(cik, companyName);
+            parametersByDedupKey.putIfAbsent(parameters.toDedupKey(TaskType.SCRAP_HOLDING), parameters);
+        }
+        
+        List<String> dedupKeys = new ArrayList<>(parametersByDedupKey.keySet());
+        List<String> taskIds = new ArrayList<>();
+        int skippedActive = 0;
+        LocalDateTime firstExecuteTime = spreadSeconds > 0 ? LocalDateTime.now() : null;
+        long intervalMillis = spreadSeconds > 0 && !dedupKeys.isEmpty()
+            ? TimeUnit.SECONDS.toMillis(spreadSeconds) / dedupKeys.size() : 0;
+        long scheduled = 0;
+        for (int from = 0; from < dedupKeys.size(); from += BATCH_ENQUEUE_CHUNK_SIZE) {
+            List<String> chunk = dedupKeys.subList(from, Math.min(from + BATCH_ENQUEUE_CHUNK_SIZE, dedupKeys.size()));
+            Set<String> activeKeys = new HashSet<>(taskMapper.selectActiveDedupKeys(chunk));
+            
+            List<String> parametersList = new ArrayList<>(chunk.size());
+            for (String dedupKey : chunk) {
+                if (!activeKeys.contains(dedupKey)) {
+                    parametersList.add(parametersByDedupKey.get(dedupKey).toJson());
+                }
+            }
+            if (!parametersList.isEmpty()) {
+                // 查询之后并发创建的重复任务会在插入时被唯一索引忽略
+                List<String> created = taskSubmitter.submitBatch(TaskType.SCRAP_HOLDING, parametersList,
+                    firstExecuteTime != null ? firstExecuteTime.plus(scheduled * intervalMillis, ChronoUnit.MILLIS) : null,
+                    intervalMillis);
+                scheduled += parametersList.size();
+                taskIds.addAll(created);
+                skippedActive += parametersList.size() - created.size();
+            }
+            skippedActive += activeKeys.size();
+        }
+        
+        BatchEnqueueResult result = new BatchEnqueueResult(requested, taskIds,
+            requested - dedupKeys.size(), skippedActive);
+        logger.info("📝 批量创建抓取任务: " + result);
+        return result;
+    }
+    
+    /**
+     * 获取任务状态，tasks表中不存在时查询归档表
      */
     public Task getTaskStatus(String taskId) {
-        return taskMapper.selectByTaskId(taskId);
+        Task task = taskMapper.selectByTaskId(taskId);
+        return task != null ? task : taskMapper.selectArchivedByTaskId(taskId);
     }
     
     /**
@@ -293,4 +955,20 @@ public class TaskService implements InitializingBean {
     public List<Task> getAllTasks() {
         return taskMapper.selectAll();
     }
+    
+    /**
+     * 按条件分页查询任务（主键倒序的游标分页）
+     * 多查一条判断是否还有下一页；limit不大于0时使用默认页大小，最大500
+     */
+    public TaskPage listTasks(TaskQueryParam queryParam) {
+        int limit = queryParam.getLimit() > 0 ? Math.min(queryParam.getLimit(), MAX_PAGE_SIZE) : DEFAULT_PAGE_SIZE;
+        TaskQueryParam pageParam = new TaskQueryParam(queryParam.getTaskType(), queryParam.getStatus(),
+            queryParam.getCreatedFrom(), queryParam.getCreatedTo(), queryParam.getBeforeId(), limit + 1);
+        List<Task> tasks = taskMapper.selectPage(pageParam);
+        if (tasks.size() <= limit) {
+            return new TaskPage(tasks, null);
+        }
+        List<Task> page = new ArrayList<>(tasks.subList(0, limit));
+        return new TaskPage(page, page.get(limit - 1).getId());
+    }
 }
\ No newline at end of file
@@ -0,0 +1,286 @@
+package com.company.sec13f.service;
+
+import com.company.sec13f.repository.entity.Task;
+import com.company.sec13f.repository.enums.TaskStatus;
+import com.company.sec13f.repository.mapper.TaskMapper;
+import com.company.sec13f.service.util.Logger;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 任务执行结果的异步批量写回
+ *
+ * 工作线程结束任务后只把结果放入待写回队列，由写回线程每隔 flush-interval-ms（或积累到 batch-size 个）
+ * 合并为一个事务：以认领节点为条件锁定仍属于本节点的任务，一条UPDATE写回状态字段，
+ * 完成的任务在同一事务中释放下游任务，提交后立即派发；有任务最终失败时，等待它的下游任务同样标记为失败。
+ * 同一任务在一次写回前多次提交结果时只写最后一次。
+ *
+ * 任务结果最多延迟一个写回间隔可见；应用关闭时写回剩余结果，关闭后提交的结果直接同步写回。
+ * 写回失败的结果保留到下一轮重试，期间租约过期被回收的任务写回时丢弃。
+ */
+@Component
+public class TaskStatusWriter implements InitializingBean, DisposableBean {
+
+    private final TaskMapper taskMapper;
+    private final TaskSubmitter taskSubmitter;
+    private final TransactionTemplate transactionTemplate;
+    private final Logger logger;
+    private final long flushIntervalMs;
+    private final int batchSize;
+
+    private final Map<String, PendingWrite> pending = new LinkedHashMap<>();
+    private final Object flushLock = new Object();
+
+    private volatile Thread writerThread;
+    private volatile boolean running;
+
+    @Autowired
+    public TaskStatusWriter(TaskMapper taskMapper, TaskSubmitter taskSubmitter,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${sec-collector.task.status-writer.flush-interval-ms:200}") long flushIntervalMs,
+                            @Value("${sec-collector.task.status-writer.batch-size:500}") int batchSize) {
+        this.taskMapper = taskMapper;
+        this.taskSubmitter = taskSubmitter;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.logger = Logger.getInstance();
+        this.flushIntervalMs = Math.max(1, flushIntervalMs);
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        running = true;
+        Thread thread = new Thread(this::runWriter, "task-status-writer");
+        thread.setDaemon(true);
+        thread.start();
+        writerThread = thread;
+        logger.info("📝 任务状态写回线程已启动, 间隔: " + flushIntervalMs + "ms, 每批: " + batchSize);
+    }
+
+    @Override
+    public void destroy() {
+        running = false;
+        Thread thread = writerThread;
+        if (thread != null) {
+            thread.interrupt();
+            try {
+                thread.join(flushIntervalMs * 5);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        flush();
+        logger.info("🛑 任务状态写回线程已停止");
+    }
+
+    /**
+     * 提交本节点执行的任务结果，写回时仅当任务仍为RUNNING且由ownerId认领时生效
+     */
+    public void write(Task task, String ownerId) {
+        synchronized (pending) {
+            pending.put(task.getTaskId(), new PendingWrite(task, ownerId));
+            if (pending.size() >= batchSize) {
+                pending.notifyAll();
+            }
+        }
+        if (!running) {
+            flush();
+        }
+    }
+
+    /**
+     * 待写回的结果数
+     */
+    public int getPendingCount() {
+        synchronized (pending) {
+            return pending.size();
+        }
+    }
+
+    /**
+     * 写回当前所有待写回的结果
+     */
+    public void flush() {
+        synchronized (flushLock) {
+            List<PendingWrite> writes;
+            while (!(writes = drain()).isEmpty()) {
+                if (!flushBatch(writes)) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private void runWriter() {
+        while (running) {
+            try {
+                synchronized (pending) {
+                    if (pending.size() < batchSize) {
+                        pending.wait(flushIntervalMs);
+                    }
+                }
+                flush();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                logger.error("❌ 任务状态写回线程异常", e);
+            }
+        }
+    }
+
+    private List<PendingWrite> drain() {
+        synchronized (pending) {
+            List<PendingWrite> writes = new ArrayList<>(Math.min(pending.size(), batchSize));
+            Iterator<PendingWrite> iterator = pending.values().iterator();
+            while (iterator.hasNext() && writes.size() < batchSize) {
+                writes.add(iterator.next());
+                iterator.remove();
+            }
+            return writes;
+        }
+    }
+
+    /**
+     * 写回失败的结果放回队列；期间同一任务提交了更新的结果时保留新结果
+     */
+    private void requeue(List<PendingWrite> writes) {
+        synchronized (pending) {
+            for (PendingWrite write : writes) {
+                pending.putIfAbsent(write.task.getTaskId(), write);
+            }
+        }
+    }
+
+    /**
+     * 写回一批结果，每个节点的结果各用一个事务；只有事务失败的结果放回队列，已提交的结果不会再次写回
+     * @return 全部写回成功时为true
+     */
+    private boolean flushBatch(List<PendingWrite> writes) {
+        Map<String, List<PendingWrite>> writesByOwner = new LinkedHashMap<>();
+        for (PendingWrite write : writes) {
+            writesByOwner.computeIfAbsent(write.ownerId, owner -> new ArrayList<>()).add(write);
+        }
+
+        List<String> releasedTaskIds = new ArrayList<>();
+        boolean anyFailed = false;
+        boolean allWritten = true;
+        for (Map.Entry<String, List<PendingWrite>> entry : writesByOwner.entrySet()) {
+            List<Task> tasks = new ArrayList<>(entry.getValue().size());
+            for (PendingWrite write : entry.getValue()) {
+                tasks.add(write.task);
+            }
+            List<Task> applied = new ArrayList<>();
+            List<String> released;
+            try {
+                released = transactionTemplate.execute(status -> writeOwned(tasks, entry.getKey(), applied));
+            } catch (Exception e) {
+                logger.error("❌ 任务状态批量写回失败，下一轮重试: " + tasks.size() + " 个", e);
+                requeue(entry.getValue());
+                allWritten = false;
+                continue;
+            }
+            if (released != null) {
+                releasedTaskIds.addAll(released);
+            }
+            for (Task task : applied) {
+                anyFailed |= task.getStatus() == TaskStatus.FAILED;
+            }
+        }
+
+        afterCommit(releasedTaskIds, anyFailed);
+        logger.debug("💾 批量写回任务状态: " + writes.size() + " 个");
+        return allWritten;
+    }
+
+    /**
+     * 写回事务提交后的通知；结果已经写入，这里出错只记录日志，不能把结果放回队列重写
+     */
+    private void afterCommit(List<String> releasedTaskIds, boolean anyFailed) {
+        try {
+            if (!releasedTaskIds.isEmpty()) {
+                logger.info("🔓 上游任务完成，释放下游任务: " + releasedTaskIds.size() + " 个");
+                // 一次可能释放大量下游任务，交给派发线程按线程池空闲容量分批认领
+                taskSubmitter.notifyBacklog();
+            }
+            if (anyFailed) {
+                failWaitingDependents();
+            }
+        } catch (Exception e) {
+            logger.error("❌ 任务状态已写回，但处理下游任务失败，留待后续写回或定时重试时处理", e);
+        }
+    }
+
+    /**
+     * 在事务中写回同一节点的一批结果：先锁定仍属于本节点的任务，再一条UPDATE写回，最后释放下游任务
+     * @param applied 输出参数，实际写回的任务
+     * @return 依赖已全部满足、转为PENDING的下游任务ID
+     */
+    private List<String> writeOwned(List<Task> tasks, String ownerId, List<Task> applied) {
+        List<String> taskIds = new ArrayList<>(tasks.size());
+        for (Task task : tasks) {
+            taskIds.add(task.getTaskId());
+        }
+        Set<String> ownedTaskIds = new HashSet<>(taskMapper.selectOwnedTaskIdsForUpdate(taskIds, ownerId));
+        for (Task task : tasks) {
+            if (ownedTaskIds.contains(task.getTaskId())) {
+                applied.add(task);
+            } else {
+                logger.warn("⚠️ 任务已不属于本节点（租约过期已被回收），丢弃执行结果: " + task.getTaskId() + " -> " + task.getStatus());
+            }
+        }
+        if (applied.isEmpty()) {
+            return Collections.emptyList();
+        }
+        taskMapper.batchUpdateOwned(applied, ownerId);
+
+        List<String> readyTaskIds = new ArrayList<>();
+        for (Task task : applied) {
+            if (task.getStatus() == TaskStatus.COMPLETED && taskMapper.resolveDependencies(task.getTaskId()) > 0) {
+                readyTaskIds.addAll(taskMapper.selectReadyDependentTaskIdsForUpdate(task.getTaskId()));
+            }
+        }
+        if (!readyTaskIds.isEmpty()) {
+            taskMapper.markDependentsReady(readyTaskIds);
+        }
+        return readyTaskIds;
+    }
+
+    /**
+     * 上游任务最终失败时，逐层把等待它的下游任务标记为失败
+     */
+    public void failWaitingDependents() {
+        int failed;
+        do {
+            failed = taskMapper.failWaitingTasksWithFailedUpstream(LocalDateTime.now());
+            if (failed > 0) {
+                logger.warn("⛔ 上游任务失败，下游任务同样标记为失败: " + failed + " 个");
+            }
+        } while (failed > 0);
+    }
+
+    private static class PendingWrite {
+        private final Task task;
+        private final String ownerId;
+
+        PendingWrite(Task task, String ownerId) {
+            this.task = task;
+            this.ownerId = ownerId;
+        }
+    }
+}
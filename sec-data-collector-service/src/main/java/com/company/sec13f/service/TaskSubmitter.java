@@ -0,0 +1,345 @@
+package com.company.sec13f.service;
+
+import com.company.sec13f.repository.entity.Task;
+import com.company.sec13f.repository.enums.TaskStatus;
+import com.company.sec13f.repository.enums.TaskType;
+import com.company.sec13f.repository.mapper.TaskMapper;
+import com.company.sec13f.service.plugin.TaskParameters;
+import com.company.sec13f.service.util.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 任务提交器 - 负责任务入库并通知调度线程
+ *
+ * 新任务写入tasks表后，任务ID和类型立即放入进程内的派发队列，由TaskService的派发线程认领并执行，
+ * 无需等待定时轮询。队列只是加速通道：进程重启时队列中的ID丢失也无妨，定时轮询会兜底捞起；
+ * 队列有界，满时不再入队，改为设置积压信号。
+ * 插件通过本类创建后续任务，避免与TaskService形成循环依赖。
+ *
+ * 批量创建的任务不逐个放入派发队列，而是设置积压信号，由派发线程按线程池空闲容量分批认领。
+ *
+ * 任务按去重键（见 {@link TaskParameters#toDedupKey(TaskType)}）合并：同一去重键已有未结束任务时不再插入，
+ * 重复触发返回已有任务的ID。
+ *
+ * 通过 {@link #submitDependent} 创建的下游任务以WAITING状态入库，上游任务全部完成（与上游状态在同一事务中提交）后
+ * 由TaskService转为PENDING并放入派发队列。
+ */
+@Component
+public class TaskSubmitter {
+
+    private final TaskMapper taskMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final Logger logger;
+    private static final int BATCH_INSERT_SIZE = 500;
+    // 派发队列容量，队列满时改为设置积压信号，任务照常由派发线程按空闲容量认领
+    private static final int DISPATCH_QUEUE_CAPACITY = 1000;
+
+    private final BlockingQueue<SubmittedTask> dispatchQueue = new LinkedBlockingQueue<>(DISPATCH_QUEUE_CAPACITY);
+    private final AtomicBoolean backlogSignal = new AtomicBoolean();
+
+    @Autowired
+    public TaskSubmitter(TaskMapper taskMapper, PlatformTransactionManager transactionManager) {
+        this.taskMapper = taskMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.logger = Logger.getInstance();
+    }
+
+    /**
+     * 创建任务并立即通知派发
+     * @return 新任务ID；与未结束任务重复时返回已有任务的ID
+     */
+    public String submit(TaskType taskType, String taskParameters) {
+        String dedupKey = TaskParameters.dedupKeyOf(taskType, taskParameters);
+        // 去重键冲突但已有任务恰好在查询前结束时，重新插入一次
+        for (int attempt = 0; attempt < 2; attempt++) {
+            Task task = new Task(UUID.randomUUID().toString(), taskType);
+            task.setTaskParameters(taskParameters);
+            task.setDedupKey(dedupKey);
+
+            if (insertUnlessDuplicate(task)) {
+                logger.info("💾 创建新任务: " + task.getTaskId() + " [" + taskType + "]");
+                notifySubmitted(task.getTaskId(), taskType);
+                return task.getTaskId();
+            }
+
+            Task existing = dedupKey != null ? taskMapper.selectActiveByDedupKey(dedupKey) : null;
+            if (existing != null) {
+                logger.info("🔁 合并重复任务: " + dedupKey + " -> " + existing.getTaskId() + " (" + existing.getStatus() + ")");
+                return existing.getTaskId();
+            }
+        }
+        throw new IllegalStateException("任务去重键冲突但未找到已有任务: " + taskType + " " + dedupKey);
+    }
+
+    /**
+     * 批量创建同类型任务，按批次多行插入
+     * @return 实际创建的任务ID（与未结束任务重复的条目不创建），顺序与参数列表一致
+     */
+    public List<String> submitBatch(TaskType taskType, List<String> taskParametersList) {
+        return submitBatch(taskType, taskParametersList, null, 0);
+    }
+
+    /**
+     * 批量创建同类型任务，执行时间按顺序错开：第i个任务在 firstExecuteTime + i * intervalMillis 之后才可被认领
+     * @param firstExecuteTime 第一个任务的执行时间，为null时立即可执行（不错开）
+     * @param intervalMillis 相邻任务的执行间隔（毫秒）
+     * @return 实际创建的任务ID（与未结束任务重复的条目不创建），顺序与参数列表一致
+     */
+    public List<String> submitBatch(TaskType taskType, List<String> taskParametersList,
+                                    LocalDateTime firstExecuteTime, long intervalMillis) {
+        List<String> taskIds = new ArrayList<>(taskParametersList.size());
+        List<Task> chunk = new ArrayList<>(Math.min(taskParametersList.size(), BATCH_INSERT_SIZE));
+        long index = 0;
+        for (String taskParameters : taskParametersList) {
+            Task task = new Task(UUID.randomUUID().toString(), taskType);
+            task.setTaskParameters(taskParameters);
+            task.setDedupKey(TaskParameters.dedupKeyOf(taskType, taskParameters));
+            if (firstExecuteTime != null) {
+                task.setNextExecuteTime(firstExecuteTime.plus(index++ * Math.max(0, intervalMillis), ChronoUnit.MILLIS));
+            }
+            chunk.add(task);
+            if (chunk.size() == BATCH_INSERT_SIZE) {
+                insertChunk(chunk, taskIds);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            insertChunk(chunk, taskIds);
+        }
+
+        if (!taskIds.isEmpty()) {
+            logger.info("💾 批量创建任务: " + taskIds.size() + " 个 [" + taskType + "]");
+            notifyBacklog();
+        }
+        return taskIds;
+    }
+
+    /**
+     * 批量创建依赖上游任务的同类型任务
+     * 上游任务在tasks中查不到时到归档表查找状态，两张表都不存在的上游视为参数错误。
+     * 上游任务已全部完成时按普通任务创建并派发，否则以WAITING状态创建，等待上游完成后释放；
+     * 已有上游失败时下游任务直接以FAILED状态创建，上游之后才失败的由级联标记为失败。
+     * 与未结束任务重复的条目不创建，已有任务不会追加依赖
+     * @param dependsOnTaskIds 上游任务ID
+     * @return 实际创建的任务ID，顺序与参数列表一致
+     * @throws IllegalArgumentException 上游任务在tasks和归档表中都不存在
+     */
+    public List<String> submitDependent(TaskType taskType, List<String> taskParametersList,
+                                        Collection<String> dependsOnTaskIds) {
+        if (taskParametersList.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Set<String> upstreamTaskIds = new LinkedHashSet<>(dependsOnTaskIds);
+        if (upstreamTaskIds.isEmpty()) {
+            return submitBatch(taskType, taskParametersList);
+        }
+
+        List<String> unfinished = new ArrayList<>();
+        List<String> failed = new ArrayList<>();
+        List<String> taskIds = transactionTemplate.execute(status -> {
+            // 锁定上游任务行，上游的完成写回会等待本事务提交后再释放下游
+            Map<String, TaskStatus> upstreamStatuses = new HashMap<>();
+            for (Task upstream : taskMapper.selectByTaskIdsForUpdate(upstreamTaskIds)) {
+                upstreamStatuses.put(upstream.getTaskId(), upstream.getStatus());
+            }
+            // 已归档的上游不会再变化，无需加锁
+            if (upstreamStatuses.size() < upstreamTaskIds.size()) {
+                List<String> missing = new ArrayList<>();
+                for (String upstreamTaskId : upstreamTaskIds) {
+                    if (!upstreamStatuses.containsKey(upstreamTaskId)) {
+                        missing.add(upstreamTaskId);
+                    }
+                }
+                for (Task archived : taskMapper.selectArchivedByTaskIds(missing)) {
+                    upstreamStatuses.put(archived.getTaskId(), archived.getStatus());
+                }
+            }
+
+            List<String> unknown = new ArrayList<>();
+            for (String upstreamTaskId : upstreamTaskIds) {
+                TaskStatus upstreamStatus = upstreamStatuses.get(upstreamTaskId);
+                if (upstreamStatus == null) {
+                    unknown.add(upstreamTaskId);
+                } else if (upstreamStatus == TaskStatus.FAILED) {
+                    failed.add(upstreamTaskId);
+                    unfinished.add(upstreamTaskId);
+                } else if (upstreamStatus != TaskStatus.COMPLETED) {
+                    unfinished.add(upstreamTaskId);
+                }
+            }
+            if (!unknown.isEmpty()) {
+                throw new IllegalArgumentException("上游任务不存在: " + unknown);
+            }
+
+            LocalDateTime now = LocalDateTime.now();
+
+            List<String> created = new ArrayList<>(taskParametersList.size());
+            List<Task> chunk = new ArrayList<>(Math.min(taskParametersList.size(), BATCH_INSERT_SIZE));
+            for (String taskParameters : taskParametersList) {
+                Task task = new Task(UUID.randomUUID().toString(), taskType);
+                task.setTaskParameters(taskParameters);
+                task.setDedupKey(TaskParameters.dedupKeyOf(taskType, taskParameters));
+                if (!failed.isEmpty()) {
+                    // 上游已失败（含已归档的失败任务，级联更新不会再覆盖到），下游直接标记为失败，不派发
+                    task.setStatus(TaskStatus.FAILED);
+                    task.setMessage("上游任务失败: " + failed.get(0));
+                    task.setEndTime(now);
+                } else if (!unfinished.isEmpty()) {
+                    task.setStatus(TaskStatus.WAITING);
+                    task.setMessage("等待上游任务完成");
+                    task.setPendingDependencies(unfinished.size());
+                }
+                chunk.add(task);
+                if (chunk.size() == BATCH_INSERT_SIZE) {
+                    insertChunk(chunk, created);
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                insertChunk(chunk, created);
+            }
+
+            // 失败的下游同样记录依赖，定时重试不会脱离上游单独重新执行它们
+            if (!unfinished.isEmpty()) {
+                for (int from = 0; from < created.size(); from += BATCH_INSERT_SIZE) {
+                    taskMapper.insertDependencies(created.subList(from, Math.min(from + BATCH_INSERT_SIZE, created.size())),
+                        unfinished);
+                }
+            }
+            return created;
+        });
+
+        if (taskIds != null && !taskIds.isEmpty()) {
+            if (!failed.isEmpty()) {
+                logger.warn("⚠️ 上游任务已失败，下游任务直接标记为失败: " + taskIds.size() + " 个 [" + taskType + "]，失败的上游: " + failed);
+            } else if (unfinished.isEmpty()) {
+                logger.info("💾 批量创建任务: " + taskIds.size() + " 个 [" + taskType + "]（上游任务均已完成）");
+                notifyBacklog();
+            } else {
+                logger.info("💾 批量创建下游任务: " + taskIds.size() + " 个 [" + taskType + "]，等待上游任务: " + unfinished);
+            }
+        }
+        return taskIds != null ? taskIds : Collections.<String>emptyList();
+    }
+
+    private void insertChunk(List<Task> chunk, List<String> createdTaskIds) {
+        try {
+            taskMapper.batchInsert(chunk);
+            for (Task task : chunk) {
+                createdTaskIds.add(task.getTaskId());
+            }
+            return;
+        } catch (DuplicateKeyException e) {
+            // 只回滚失败的这条语句，改为逐行插入，跳过去重键冲突的行
+            logger.debug("批量插入存在去重键冲突，逐行插入: " + e.getMessage());
+        }
+
+        int merged = 0;
+        for (Task task : chunk) {
+            if (insertUnlessDuplicate(task)) {
+                createdTaskIds.add(task.getTaskId());
+            } else {
+                merged++;
+            }
+        }
+        logger.info("🔁 批量创建时合并重复任务: " + merged + " 个");
+    }
+
+    /**
+     * 插入单个任务，去重键与未结束任务冲突时返回false；其他数据错误照常抛出
+     */
+    private boolean insertUnlessDuplicate(Task task) {
+        try {
+            taskMapper.insert(task);
+            return true;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+
+    /**
+     * 通知派发线程数据库中可能有积压的可执行任务
+     */
+    public void notifyBacklog() {
+        backlogSignal.set(true);
+    }
+
+    /**
+     * 取出积压信号（取出后复位）
+     */
+    public boolean takeBacklogSignal() {
+        return backlogSignal.getAndSet(false);
+    }
+
+    /**
+     * 通知派发线程有可执行的任务（任务已存在于数据库中）；派发队列已满时改为设置积压信号
+     */
+    public void notifySubmitted(String taskId, TaskType taskType) {
+        if (!dispatchQueue.offer(new SubmittedTask(taskId, taskType))) {
+            notifyBacklog();
+        }
+    }
+
+    /**
+     * 等待下一个已提交的任务，超时返回null
+     */
+    SubmittedTask pollSubmitted(long timeout, TimeUnit unit) throws InterruptedException {
+        return dispatchQueue.poll(timeout, unit);
+    }
+
+    /**
+     * 取出当前已提交的任务（不等待）
+     * @return 取出的数量
+     */
+    int drainSubmitted(Collection<? super SubmittedTask> target, int maxElements) {
+        return dispatchQueue.drainTo(target, maxElements);
+    }
+
+    /**
+     * 派发队列中等待认领的任务数
+     */
+    public int getPendingDispatchCount() {
+        return dispatchQueue.size();
+    }
+
+    /**
+     * 派发队列中的任务：派发线程据类型先检查线程池空闲容量再认领
+     */
+    static final class SubmittedTask {
+        private final String taskId;
+        private final TaskType taskType;
+
+        SubmittedTask(String taskId, TaskType taskType) {
+            this.taskId = taskId;
+            this.taskType = taskType;
+        }
+
+        String getTaskId() {
+            return taskId;
+        }
+
+        TaskType getTaskType() {
+            return taskType;
+        }
+    }
+}
@@ -0,0 +1,256 @@
+package com.company.sec13f.service;
+
+import com.company.sec13f.repository.enums.TaskType;
+import com.company.sec13f.service.util.Logger;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 按任务类型划分的工作线程池
+ *
+ * 每种TaskType使用独立的线程池，避免耗时的网络抓取任务占满线程导致合并等轻量任务排队。
+ * 线程数和优先级通过配置指定（未配置的类型使用default配置）：
+ * <pre>
+ * sec-collector.task.pools.SCRAP_HOLDING.size=3
+ * sec-collector.task.pools.SCRAP_HOLDING.priority=10
+ * sec-collector.task.pools.SCRAP_HOLDING.queue-capacity=3
+ * sec-collector.task.pools.SCRAP_HOLDING.timeout-seconds=1800
+ * sec-collector.task.pools.HOLDING_MERGE.batch-size=200
+ * </pre>
+ * priority数值越小越优先认领。每个线程池的等待队列有界，执行中与排队的任务总数超过
+ * size + queue-capacity 时拒绝提交，调度器按 {@link #getFreeCapacity(TaskType)} 决定认领数量。
+ *
+ * 开启 sec-collector.task.virtual-threads.enabled 且运行在JDK 21+ 时，每个任务使用独立的虚拟线程执行，
+ * size 表示该类型的最大并发数（不再有等待队列），适合以HTTP/JDBC阻塞为主的抓取任务；
+ * 低版本JDK上自动回退到平台线程池。
+ */
+@Component
+public class TaskWorkerPools implements DisposableBean {
+
+    private static final String PREFIX = "sec-collector.task.pools.";
+    private static final int DEFAULT_SIZE = 3;
+    private static final int DEFAULT_PRIORITY = 100;
+    private static final int DEFAULT_TIMEOUT_SECONDS = 3600;
+
+    private final Environment environment;
+    private final Logger logger;
+    private final Map<TaskType, WorkerPool> pools = new ConcurrentHashMap<>();
+    private final boolean virtualThreads;
+
+    @Autowired
+    public TaskWorkerPools(Environment environment) {
+        this.environment = environment;
+        this.logger = Logger.getInstance();
+        this.virtualThreads = environment.getProperty("sec-collector.task.virtual-threads.enabled", Boolean.class, false)
+            && isVirtualThreadSupported();
+    }
+
+    /**
+     * 获取任务类型对应的线程池（首次使用时创建）
+     * 线程池已满时提交会抛出RejectedExecutionException
+     */
+    public Executor executorFor(TaskType taskType) {
+        return pools.computeIfAbsent(taskType, this::createPool);
+    }
+
+    /**
+     * 任务类型的线程池还能接收的任务数
+     */
+    public int getFreeCapacity(TaskType taskType) {
+        WorkerPool pool = pools.get(taskType);
+        if (pool == null) {
+            return getPoolSize(taskType) + getQueueCapacity(taskType);
+        }
+        return Math.max(0, pool.capacity - pool.inFlight.get());
+    }
+
+    /**
+     * 任务类型当前执行中和排队的任务数
+     */
+    public int getInFlightCount(TaskType taskType) {
+        WorkerPool pool = pools.get(taskType);
+        return pool != null ? pool.inFlight.get() : 0;
+    }
+
+    /**
+     * 是否使用虚拟线程执行任务
+     */
+    public boolean isVirtualThreads() {
+        return virtualThreads;
+    }
+
+    /**
+     * 任务类型的线程数（虚拟线程模式下为最大并发数）
+     */
+    public int getPoolSize(TaskType taskType) {
+        return Math.max(1, getInt(taskType, "size", DEFAULT_SIZE));
+    }
+
+    /**
+     * 任务类型的等待队列容量，默认与线程数相同；虚拟线程模式下为0
+     */
+    public int getQueueCapacity(TaskType taskType) {
+        if (virtualThreads) {
+            return 0;
+        }
+        return Math.max(0, getInt(taskType, "queue-capacity", getPoolSize(taskType)));
+    }
+
+    /**
+     * 任务类型的优先级，数值越小越优先
+     */
+    public int getPriority(TaskType taskType) {
+        return getInt(taskType, "priority", DEFAULT_PRIORITY);
+    }
+
+    /**
+     * 任务类型的执行超时（秒），超时后中断工作线程；0表示不限制
+     */
+    public int getTimeoutSeconds(TaskType taskType) {
+        return Math.max(0, getInt(taskType, "timeout-seconds", DEFAULT_TIMEOUT_SECONDS));
+    }
+
+    /**
+     * 任务类型每批执行的最大任务数（插件支持批量执行时生效），默认1即逐个执行；一批任务只占一个线程池名额
+     */
+    public int getBatchSize(TaskType taskType) {
+        return Math.max(1, getInt(taskType, "batch-size", 1));
+    }
+
+    /**
+     * 按优先级排序任务类型，优先级相同时按枚举顺序
+     */
+    public List<TaskType> sortByPriority(Collection<TaskType> taskTypes) {
+        List<TaskType> sorted = new ArrayList<>(taskTypes);
+        sorted.sort(Comparator.comparingInt(this::getPriority).thenComparing(Enum::ordinal));
+        return sorted;
+    }
+
+    private WorkerPool createPool(TaskType taskType) {
+        int size = getPoolSize(taskType);
+        if (virtualThreads) {
+            logger.info("🧵 创建虚拟线程任务执行器: " + taskType + " 最大并发: " + size + " 优先级: " + getPriority(taskType));
+            return new WorkerPool(taskType, newVirtualThreadPerTaskExecutor(), size);
+        }
+        int queueCapacity = getQueueCapacity(taskType);
+        logger.info("🧵 创建任务线程池: " + taskType + " 线程数: " + size + " 队列容量: " + queueCapacity
+                  + " 优先级: " + getPriority(taskType));
+        BlockingQueue<Runnable> queue = queueCapacity > 0
+            ? new ArrayBlockingQueue<>(queueCapacity) : new SynchronousQueue<>();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(size, size, 0L, TimeUnit.MILLISECONDS,
+            queue, new WorkerThreadFactory(taskType));
+        return new WorkerPool(taskType, executor, size + queueCapacity);
+    }
+
+    /**
+     * 项目以Java 8为编译目标，通过反射调用JDK 21的Executors.newVirtualThreadPerTaskExecutor
+     */
+    private static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) method.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("当前JDK不支持虚拟线程", e);
+        }
+    }
+
+    private boolean isVirtualThreadSupported() {
+        try {
+            Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return true;
+        } catch (NoSuchMethodException e) {
+            logger.warn("⚠️ 已开启虚拟线程但当前JDK不支持 (java.version=" + System.getProperty("java.version")
+                      + ")，使用平台线程池");
+            return false;
+        }
+    }
+
+    private int getInt(TaskType taskType, String key, int defaultValue) {
+        Integer value = environment.getProperty(PREFIX + taskType.name() + "." + key, Integer.class);
+        if (value == null) {
+            value = environment.getProperty(PREFIX + "default." + key, Integer.class, defaultValue);
+        }
+        return value;
+    }
+
+    /**
+     * TaskService停机排空后关闭线程池：此时剩余的任务已归还，中断仍在执行的线程、丢弃排队的任务
+     */
+    @Override
+    public void destroy() {
+        for (WorkerPool pool : pools.values()) {
+            pool.executor.shutdownNow();
+        }
+    }
+
+    /**
+     * 带在途计数的线程池：提交前占用名额，任务结束后释放
+     */
+    private static class WorkerPool implements Executor {
+        private final TaskType taskType;
+        private final ExecutorService executor;
+        private final int capacity;
+        private final AtomicInteger inFlight = new AtomicInteger();
+
+        WorkerPool(TaskType taskType, ExecutorService executor, int capacity) {
+            this.taskType = taskType;
+            this.executor = executor;
+            this.capacity = capacity;
+        }
+
+        @Override
+        public void execute(Runnable command) {
+            if (inFlight.incrementAndGet() > capacity) {
+                inFlight.decrementAndGet();
+                throw new RejectedExecutionException(taskType + " 线程池已满 (容量: " + capacity + ")");
+            }
+            try {
+                executor.execute(() -> {
+                    try {
+                        command.run();
+                    } finally {
+                        inFlight.decrementAndGet();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                inFlight.decrementAndGet();
+                throw e;
+            }
+        }
+    }
+
+    private static class WorkerThreadFactory implements ThreadFactory {
+        private final String namePrefix;
+        private final AtomicInteger counter = new AtomicInteger();
+
+        WorkerThreadFactory(TaskType taskType) {
+            this.namePrefix = "task-" + taskType.name().toLowerCase().replace('_', '-') + "-";
+        }
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            return new Thread(runnable, namePrefix + counter.incrementAndGet());
+        }
+    }
+}
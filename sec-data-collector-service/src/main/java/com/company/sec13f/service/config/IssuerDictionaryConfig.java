@@ -0,0 +1,20 @@
+package com.company.sec13f.service.config;
+
+import com.company.sec13f.repository.util.IssuerDictionary;
+import com.company.sec13f.service.util.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 发行人字典配置类
+ * 启动时把 sec-collector.issuer-dictionary.max-entries 应用到进程级的IssuerDictionary
+ */
+@Configuration
+public class IssuerDictionaryConfig {
+
+    public IssuerDictionaryConfig(
+            @Value("${sec-collector.issuer-dictionary.max-entries:" + IssuerDictionary.DEFAULT_MAX_ENTRIES + "}") int maxEntries) {
+        IssuerDictionary.getInstance().setMaxEntries(maxEntries);
+        Logger.getInstance().info("📚 发行人字典容量上限: " + IssuerDictionary.getInstance().getMaxEntries());
+    }
+}
@@ -1,8 +1,9 @@
 package com.company.sec13f.service.parser;
 
 import com.company.sec13f.repository.model.Filing;
-import com.company.sec13f.repository.model.Holding;
+import com.company.sec13f.repository.model.HoldingRowBuffer;
 import com.company.sec13f.service.util.Logger;
+import com.company.sec13f.service.util.StreamingHoldingValidator;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 import org.w3c.dom.NodeList;
@@ -10,12 +11,9 @@ import org.w3c.dom.NodeList;
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 import java.io.ByteArrayInputStream;
-import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
-import java.util.ArrayList;
-import java.util.List;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -38,12 +36,21 @@ public class Enhanced13FXMLParser {
      * 解析13F XML内容
      */
     public static Filing parse13FContent(String content, String accessionNumber, String cik) {
+        return parse13FContent(content, accessionNumber, cik, null);
+    }
+    
+    /**
+     * 解析13F XML内容，每行持仓产出时即交给validator校验，未通过的行直接丢弃
+     * @param validator 流式校验器，为null时不校验
+     */
+    public static Filing parse13FContent(String content, String accessionNumber, String cik,
+                                         StreamingHoldingValidator validator) {
         Filing filing = new Filing();
         filing.setAccessionNumber(accessionNumber);
         filing.setCik(cik);
         filing.setFilingType("13F-HR");
         
-        List<Holding> holdings = new ArrayList<>();
+        HoldingRowBuffer holdings = new HoldingRowBuffer();
         
         // 尝试DOM解析
         try {
@@ -62,7 +69,7 @@ public class Enhanced13FXMLParser {
                 }
                 
                 // 解析持仓信息
-                holdings = parseHoldingsFromDOM(doc);
+                holdings = parseHoldingsFromDOM(doc, validator);
                 logger.info("DOM parsing extracted " + holdings.size() + " holdings");
             }
         } catch (Exception e) {
@@ -70,8 +77,8 @@ public class Enhanced13FXMLParser {
         }
         
         // 如果DOM解析失败或没有找到持仓，使用增强的正则表达式解析
-        if (holdings.isEmpty()) {
-            holdings = parseHoldingsWithRegex(content);
+        if (holdings.isEmpty() && !hasSeenRows(validator)) {
+            holdings = parseHoldingsWithRegex(content, validator);
             logger.info("Regex parsing extracted " + holdings.size() + " holdings");
             
             // 如果还是没有日期，尝试从内容中提取
@@ -91,15 +98,8 @@ public class Enhanced13FXMLParser {
             }
         }
         
-        // 为每个holding设置CIK和公司名称（如果可用）
-        for (Holding holding : holdings) {
-            holding.setCik(cik);
-            if (filing.getCompanyName() != null && !filing.getCompanyName().trim().isEmpty()) {
-                holding.setCompanyName(filing.getCompanyName());
-            }
-        }
-        
-        filing.setHoldings(holdings);
+        // CIK和公司名称在写入时按申报绑定，不再逐行设置
+        filing.setHoldingRows(holdings);
         logger.info("Total parsed " + holdings.size() + " holdings from 13F filing " + accessionNumber);
         
         return filing;
@@ -164,8 +164,8 @@ public class Enhanced13FXMLParser {
     /**
      * 从DOM解析持仓信息 - 优化版本，符合SEC标准格式
      */
-    private static List<Holding> parseHoldingsFromDOM(Document doc) {
-        List<Holding> holdings = new ArrayList<>();
+    private static HoldingRowBuffer parseHoldingsFromDOM(Document doc, StreamingHoldingValidator validator) {
+        HoldingRowBuffer holdings = new HoldingRowBuffer();
         
         // 首先尝试标准的informationTable格式 (根据SEC API指南)
         NodeList infoTableNodes = doc.getElementsByTagName("infoTable");
@@ -173,10 +173,7 @@ public class Enhanced13FXMLParser {
             logger.debug("🎯 找到标准的infoTable节点: " + infoTableNodes.getLength() + " 个");
             for (int i = 0; i < infoTableNodes.getLength(); i++) {
                 Element infoTableElement = (Element) infoTableNodes.item(i);
-                Holding holding = parseStandardInfoTable(infoTableElement);
-                if (holding != null) {
-                    holdings.add(holding);
-                }
+                parseStandardInfoTable(infoTableElement, holdings, validator);
             }
             return holdings;
         }
@@ -199,10 +196,7 @@ public class Enhanced13FXMLParser {
                 for (int i = 0; i < holdingNodes.getLength(); i++) {
                     try {
                         Element holdingElement = (Element) holdingNodes.item(i);
-                        Holding holding = parseHoldingElement(holdingElement);
-                        if (holding != null) {
-                            holdings.add(holding);
-                        }
+                        parseHoldingElement(holdingElement, holdings, validator);
                     } catch (Exception e) {
                         logger.debug("Failed to parse holding element " + i + ": " + e.getMessage());
                     }
@@ -214,13 +208,19 @@ public class Enhanced13FXMLParser {
         return holdings;
     }
     
+    /**
+     * 校验器是否已经见过解析出的行（全部被丢弃时不应再走回退解析）
+     */
+    private static boolean hasSeenRows(StreamingHoldingValidator validator) {
+        return validator != null && validator.getSeenCount() > 0;
+    }
+    
     /**
      * 解析单个持仓元素
      */
-    private static Holding parseHoldingElement(Element element) {
+    private static void parseHoldingElement(Element element, HoldingRowBuffer holdings,
+                                            StreamingHoldingValidator validator) {
         try {
-            Holding holding = new Holding();
-            
             // 尝试多种可能的字段名
             String issuer = getElementTextByNames(element, "nameOfIssuer", "issuer", "issuerName", "name");
             String cusip = getElementTextByNames(element, "cusip", "cusipNum", "cusipNumber");
@@ -238,35 +238,31 @@ public class Enhanced13FXMLParser {
             
             if (issuer == null || cusip == null) {
                 logger.debug("Skipping holding - missing required fields");
-                return null;
+                return;
             }
             
-            holding.setNameOfIssuer(issuer.trim());
-            holding.setCusip(cusip.trim());
-            
             // 解析数值，处理可能的千分位分隔符
+            long valueInCents = HoldingRowBuffer.NULL;
             if (value != null && !value.trim().isEmpty()) {
                 try {
-                    String cleanValue = value.replaceAll("[,$\\s]", "");
-                    holding.setValue(new BigDecimal(cleanValue));
+                    valueInCents = HoldingRowBuffer.parseCents(value.replaceAll("[,$\\s]", ""));
                 } catch (NumberFormatException e) {
                     logger.debug("Failed to parse value: " + value);
                 }
             }
             
+            long shareCount = HoldingRowBuffer.NULL;
             if (shares != null && !shares.trim().isEmpty()) {
                 try {
-                    String cleanShares = shares.replaceAll("[,$\\s]", "");
-                    holding.setShares(Long.parseLong(cleanShares));
+                    shareCount = Long.parseLong(shares.replaceAll("[,$\\s]", ""));
                 } catch (NumberFormatException e) {
                     logger.debug("Failed to parse shares: " + shares);
                 }
             }
             
-            return holding;
+            StreamingHoldingValidator.emit(validator, holdings, issuer.trim(), cusip.trim(), valueInCents, shareCount);
         } catch (Exception e) {
             logger.debug("Failed to parse holding element: " + e.getMessage());
-            return null;
         }
     }
     
@@ -302,8 +298,8 @@ public class Enhanced13FXMLParser {
     /**
      * 使用增强的正则表达式解析持仓
      */
-    private static List<Holding> parseHoldingsWithRegex(String content) {
-        List<Holding> holdings = new ArrayList<>();
+    private static HoldingRowBuffer parseHoldingsWithRegex(String content, StreamingHoldingValidator validator) {
+        HoldingRowBuffer holdings = new HoldingRowBuffer();
         
         // 多种正则表达式模式以匹配不同格式
         Pattern[] patterns = {
@@ -324,28 +320,21 @@ public class Enhanced13FXMLParser {
             Matcher matcher = pattern.matcher(content);
             while (matcher.find()) {
                 try {
-                    Holding holding = new Holding();
-                    holding.setNameOfIssuer(matcher.group(1).trim());
-                    holding.setCusip(matcher.group(2).trim());
-                    
                     // 清理并解析数值
                     String valueStr = matcher.group(3).trim().replaceAll("[,$\\s]", "");
                     String sharesStr = matcher.group(4).trim().replaceAll("[,$\\s]", "");
                     
-                    if (!valueStr.isEmpty()) {
-                        holding.setValue(new BigDecimal(valueStr));
-                    }
-                    if (!sharesStr.isEmpty()) {
-                        holding.setShares(Long.parseLong(sharesStr));
-                    }
+                    long valueInCents = HoldingRowBuffer.parseCents(valueStr);
+                    long shareCount = sharesStr.isEmpty() ? HoldingRowBuffer.NULL : Long.parseLong(sharesStr);
                     
-                    holdings.add(holding);
+                    StreamingHoldingValidator.emit(validator, holdings, matcher.group(1).trim(), matcher.group(2).trim(),
+                        valueInCents, shareCount);
                 } catch (Exception e) {
                     logger.debug("Failed to parse holding with regex: " + e.getMessage());
                 }
             }
             
-            if (!holdings.isEmpty()) {
+            if (!holdings.isEmpty() || hasSeenRows(validator)) {
                 logger.debug("Successfully parsed holdings with pattern " + (pattern.pattern().length() > 50 ? 
                     pattern.pattern().substring(0, 50) + "..." : pattern.pattern()));
                 break;
@@ -400,10 +389,9 @@ public class Enhanced13FXMLParser {
     /**
      * 解析标准的infoTable格式（符合SEC API指南）
      */
-    private static Holding parseStandardInfoTable(Element infoTableElement) {
+    private static void parseStandardInfoTable(Element infoTableElement, HoldingRowBuffer holdings,
+                                               StreamingHoldingValidator validator) {
         try {
-            Holding holding = new Holding();
-            
             // 根据SEC API指南解析标准字段
             String nameOfIssuer = getElementTextContent(infoTableElement, "nameOfIssuer");
             String cusip = getElementTextContent(infoTableElement, "cusip");
@@ -421,40 +409,37 @@ public class Enhanced13FXMLParser {
             if (nameOfIssuer == null || cusip == null || valueStr == null) {
                 logger.debug("❌ 标准infoTable缺少必需字段: nameOfIssuer=" + nameOfIssuer + 
                            ", cusip=" + cusip + ", value=" + valueStr);
-                return null;
+                return;
             }
             
-            // 设置基本字段
-            holding.setNameOfIssuer(nameOfIssuer.trim());
-            holding.setCusip(cusip.trim());
-            
             // 解析数值字段
+            long valueInCents;
             try {
-                BigDecimal value = new BigDecimal(valueStr.replaceAll("[^0-9.-]", ""));
-                holding.setValue(value);
+                valueInCents = HoldingRowBuffer.parseCents(valueStr.replaceAll("[^0-9.-]", ""));
             } catch (NumberFormatException e) {
                 logger.debug("⚠️ 无法解析value字段: " + valueStr);
-                return null;
+                return;
+            }
+            if (valueInCents == HoldingRowBuffer.NULL) {
+                logger.debug("⚠️ 无法解析value字段: " + valueStr);
+                return;
             }
             
             // 解析股份数量
+            long shareCount = HoldingRowBuffer.NULL;
             if (sharesStr != null && !sharesStr.trim().isEmpty()) {
                 try {
-                    Long shares = Long.parseLong(sharesStr.replaceAll("[^0-9]", ""));
-                    holding.setShares(shares);
+                    shareCount = Long.parseLong(sharesStr.replaceAll("[^0-9]", ""));
                 } catch (NumberFormatException e) {
                     logger.debug("⚠️ 无法解析shares字段: " + sharesStr);
                     // shares字段不是必需的，可以为空
                 }
             }
             
-            logger.debug("✅ 成功解析标准infoTable: " + nameOfIssuer + " (CUSIP: " + cusip + 
-                        ", Value: " + valueStr + ", Shares: " + sharesStr + ")");
-            return holding;
+            StreamingHoldingValidator.emit(validator, holdings, nameOfIssuer.trim(), cusip.trim(), valueInCents, shareCount);
             
         } catch (Exception e) {
             logger.debug("❌ 解析标准infoTable失败: " + e.getMessage());
-            return null;
         }
     }
     
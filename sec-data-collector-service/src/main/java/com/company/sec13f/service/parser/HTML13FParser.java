@@ -1,11 +1,11 @@
 package com.company.sec13f.service.parser;
 
 import com.company.sec13f.repository.model.Filing;
-import com.company.sec13f.repository.model.Holding;
+import com.company.sec13f.repository.model.HoldingRowBuffer;
 import com.company.sec13f.service.util.Logger;
+import com.company.sec13f.service.util.StreamingHoldingValidator;
 
 import java.io.StringReader;
-import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
@@ -29,16 +29,25 @@ public class HTML13FParser {
      * @return Filing对象包含解析后的持仓信息
      */
     public static Filing parseHTML13FContent(String htmlContent, String accessionNumber, String cik) {
+        return parseHTML13FContent(htmlContent, accessionNumber, cik, null);
+    }
+    
+    /**
+     * 解析HTML格式的13F持仓信息，每行持仓产出时即交给validator校验，未通过的行直接丢弃
+     * @param validator 流式校验器，为null时不校验
+     */
+    public static Filing parseHTML13FContent(String htmlContent, String accessionNumber, String cik,
+                                             StreamingHoldingValidator validator) {
         Filing filing = new Filing();
         filing.setAccessionNumber(accessionNumber);
         filing.setCik(cik);
         filing.setFilingType("13F-HR");
         
-        List<Holding> holdings = new ArrayList<>();
+        HoldingRowBuffer holdings = new HoldingRowBuffer();
         
         try {
             // 解析HTML表格中的持仓数据
-            holdings = parseHoldingsFromHTMLTable(htmlContent);
+            holdings = parseHoldingsFromHTMLTable(htmlContent, validator);
             logger.info("🎯 从HTML表格中解析出 " + holdings.size() + " 条持仓记录");
             
             // 尝试提取报告期间
@@ -58,15 +67,8 @@ public class HTML13FParser {
             logger.error("❌ 解析HTML格式13F文件失败: " + e.getMessage());
         }
         
-        // 为每个holding设置CIK和公司名称（如果可用）
-        for (Holding holding : holdings) {
-            holding.setCik(cik);
-            if (filing.getCompanyName() != null && !filing.getCompanyName().trim().isEmpty()) {
-                holding.setCompanyName(filing.getCompanyName());
-            }
-        }
-        
-        filing.setHoldings(holdings);
+        // CIK和公司名称在写入时按申报绑定，不再逐行设置
+        filing.setHoldingRows(holdings);
         return filing;
     }
     
@@ -74,8 +76,8 @@ public class HTML13FParser {
      * 从HTML表格中解析持仓信息
      * 根据实际的HTML结构分析结果优化解析逻辑
      */
-    private static List<Holding> parseHoldingsFromHTMLTable(String htmlContent) {
-        List<Holding> holdings = new ArrayList<>();
+    private static HoldingRowBuffer parseHoldingsFromHTMLTable(String htmlContent, StreamingHoldingValidator validator) {
+        HoldingRowBuffer holdings = new HoldingRowBuffer();
         
         try {
             logger.debug("🔍 开始解析HTML表格持仓数据...");
@@ -111,33 +113,26 @@ public class HTML13FParser {
                     
                     // 验证必需字段
                     if (isValidData(issuerName) && isValidData(cusip) && isValidData(value)) {
-                        Holding holding = new Holding();
-                        
-                        // 设置基本信息
-                        holding.setNameOfIssuer(issuerName);
-                        holding.setCusip(cusip);
-                        
                         // 解析价值（SEC 13F中通常以千美元为单位）
+                        long valueInCents;
                         try {
-                            String cleanValue = value.replaceAll("[,$\\s]", "");
-                            BigDecimal valueInThousands = new BigDecimal(cleanValue);
-                            holding.setValue(valueInThousands);
+                            valueInCents = HoldingRowBuffer.parseCents(value.replaceAll("[,$\\s]", ""));
                         } catch (NumberFormatException e) {
                             logger.debug("⚠️ 无法解析价值字段: " + value);
                             continue; // 跳过无法解析价值的记录
                         }
                         
                         // 解析股数（仅处理股票类型）
+                        long shareCount = HoldingRowBuffer.NULL;
                         if (isValidData(sharesAmount) && "SH".equalsIgnoreCase(sharesPrinType)) {
                             try {
-                                String cleanShares = sharesAmount.replaceAll("[,$\\s]", "");
-                                holding.setShares(Long.parseLong(cleanShares));
+                                shareCount = Long.parseLong(sharesAmount.replaceAll("[,$\\s]", ""));
                             } catch (NumberFormatException e) {
                                 logger.debug("⚠️ 无法解析股数字段: " + sharesAmount);
                             }
                         }
                         
-                        holdings.add(holding);
+                        StreamingHoldingValidator.emit(validator, holdings, issuerName, cusip, valueInCents, shareCount);
                         logger.debug("✅ 解析持仓记录: " + issuerName + " (CUSIP: " + cusip + ", 价值: " + value + ")");
                         
                     } else {
@@ -151,9 +146,9 @@ public class HTML13FParser {
             logger.debug("🔍 严格模式找到 " + foundCount + " 条记录，解析成功 " + holdings.size() + " 条");
             
             // 如果严格模式没有找到数据，尝试更宽松的模式
-            if (holdings.isEmpty()) {
+            if (holdings.isEmpty() && (validator == null || validator.getSeenCount() == 0)) {
                 logger.debug("🔄 严格模式未找到数据，尝试宽松模式...");
-                holdings = parseWithRelaxedPattern(htmlContent);
+                holdings = parseWithRelaxedPattern(htmlContent, validator);
             }
             
         } catch (Exception e) {
@@ -166,8 +161,8 @@ public class HTML13FParser {
     /**
      * 使用更宽松的模式解析HTML表格
      */
-    private static List<Holding> parseWithRelaxedPattern(String htmlContent) {
-        List<Holding> holdings = new ArrayList<>();
+    private static HoldingRowBuffer parseWithRelaxedPattern(String htmlContent, StreamingHoldingValidator validator) {
+        HoldingRowBuffer holdings = new HoldingRowBuffer();
         logger.debug("🔄 尝试使用宽松模式解析HTML表格...");
         
         try {
@@ -227,14 +222,10 @@ public class HTML13FParser {
             
             for (int i = 0; i < minSize; i++) {
                 try {
-                    Holding holding = new Holding();
-                    holding.setNameOfIssuer(issuers.get(i));
-                    holding.setCusip(cusips.get(i));
-                    
-                    String cleanValue = values.get(i).replaceAll("[,$\\s]", "");
-                    holding.setValue(new BigDecimal(cleanValue));
-                    
-                    holdings.add(holding);
+                    long valueInCents = HoldingRowBuffer.parseCents(values.get(i).replaceAll("[,$\\s]", ""));
+                    // 宽松模式不提取股数，写入为NULL
+                    StreamingHoldingValidator.emit(validator, holdings, issuers.get(i), cusips.get(i),
+                        valueInCents, HoldingRowBuffer.NULL);
                     logger.debug("✅ 宽松模式组合: " + issuers.get(i) + " (CUSIP: " + cusips.get(i) + ", 价值: " + values.get(i) + ")");
                     
                 } catch (Exception e) {
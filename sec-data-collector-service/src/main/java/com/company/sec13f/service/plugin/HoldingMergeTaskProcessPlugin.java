@@ -1,15 +1,18 @@
 package com.company.sec13f.service.plugin;
 
-import com.company.sec13f.repository.entity.MergeHolding;
 import com.company.sec13f.repository.entity.Task;
 import com.company.sec13f.repository.enums.TaskType;
 import com.company.sec13f.repository.mapper.MergeHoldingMapper;
 import com.company.sec13f.service.util.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -17,90 +20,113 @@ import java.util.Map;
  * 持仓合并任务处理插件
  * 负责处理HOLDING_MERGE类型的任务
  * 将同一filing_id下相同cusip的持仓记录进行合并，累加市值和股票数
+ *
+ * 支持批量合并：多个任务的filing_id在一个事务中用集合SQL一次删除、聚合写入和计数，
+ * 单个任务按只有一个filing的批次处理
  */
 @Component
 public class HoldingMergeTaskProcessPlugin implements TaskProcessPlugin {
     
     private final MergeHoldingMapper mergeHoldingMapper;
+    private final TransactionTemplate transactionTemplate;
     private final Logger logger;
     
     @Autowired
-    public HoldingMergeTaskProcessPlugin(MergeHoldingMapper mergeHoldingMapper) {
+    public HoldingMergeTaskProcessPlugin(MergeHoldingMapper mergeHoldingMapper,
+                                         PlatformTransactionManager transactionManager) {
         this.mergeHoldingMapper = mergeHoldingMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
         this.logger = Logger.getInstance();
     }
     
     @Override
     public TaskResult handleTask(Task task) {
-        try {
-            // 从任务参数中解析filing_id
-            TaskParameters params = new TaskParameters(task.getTaskParameters());
-            Long filingId = params.getLong("filingId");
-            String cik = params.getString("cik");
-            String companyName = params.getString("companyName");
-            
-            if (filingId == null) {
-                return TaskResult.failure("任务参数不完整：缺少filingId");
-            }
-            
-            logger.info(String.format("🔄 开始执行持仓合并任务 - FilingId: %d, CIK: %s, 公司: %s", filingId, cik, companyName));
-            
-            // 1. 删除该filing_id的现有合并记录（如果存在）
-            long deletedCount = mergeHoldingMapper.deleteByFilingId(filingId);
-            if (deletedCount > 0) {
-                logger.info(String.format("🗑️ 删除现有合并记录: %d 条", deletedCount));
-            }
-            
-            // 2. 查询并聚合该filing_id下的持仓数据
-            List<Map<String, Object>> aggregatedData = mergeHoldingMapper.selectAggregatedHoldingsByFilingId(filingId);
-            
-            if (aggregatedData.isEmpty()) {
-                return TaskResult.failure("未找到filing_id=" + filingId + "的持仓数据");
+        return handleBatch(Collections.singletonList(task)).get(task.getTaskId());
+    }
+    
+    @Override
+    public boolean supportsBatch() {
+        return true;
+    }
+    
+    /**
+     * 批量执行持仓合并任务
+     * 所有filing在同一事务中合并，任一步骤失败则整批回滚并全部返回失败
+     * @param tasks 持仓合并任务
+     * @return 以taskId为键的执行结果，包含每个传入的任务
+     */
+    @Override
+    public Map<String, TaskResult> handleBatch(List<Task> tasks) {
+        Map<String, TaskResult> results = new LinkedHashMap<>();
+        Map<Long, List<Task>> tasksByFilingId = new LinkedHashMap<>();
+        
+        // 从任务参数中解析filing_id
+        for (Task task : tasks) {
+            try {
+                Long filingId = new TaskParameters(task.getTaskParameters()).getLong("filingId");
+                if (filingId == null) {
+                    results.put(task.getTaskId(), TaskResult.permanentFailure("任务参数不完整：缺少filingId"));
+                } else {
+                    tasksByFilingId.computeIfAbsent(filingId, id -> new ArrayList<>()).add(task);
+                }
+            } catch (Exception e) {
+                results.put(task.getTaskId(), TaskResult.permanentFailure("任务参数解析失败: " + e.getMessage(), e));
             }
-            
-            logger.info(String.format("📊 查询到 %d 个聚合后的持仓记录", aggregatedData.size()));
-            
-            // 3. 转换为MergeHolding实体并批量插入
-            List<MergeHolding> mergeHoldings = new ArrayList<>();
-            
-            for (Map<String, Object> data : aggregatedData) {
-                MergeHolding mergeHolding = new MergeHolding();
-                mergeHolding.setHoldingId(getLongValue(data, "first_holding_id"));
-                mergeHolding.setFilingId(getLongValue(data, "filing_id"));
-                mergeHolding.setCik(getStringValue(data, "cik"));
-                mergeHolding.setCompanyName(getStringValue(data, "company_name"));
-                mergeHolding.setReportPeriod(getStringValue(data, "report_period"));
-                mergeHolding.setNameOfIssuer(getStringValue(data, "name_of_issuer"));
-                mergeHolding.setCusip(getStringValue(data, "cusip"));
-                mergeHolding.setValue(getBigDecimalValue(data, "total_value"));
-                mergeHolding.setShares(getLongValue(data, "total_shares"));
+        }
+        if (tasksByFilingId.isEmpty()) {
+            return results;
+        }
+        
+        List<Long> filingIds = new ArrayList<>(tasksByFilingId.keySet());
+        logger.info(String.format("🔄 开始执行持仓合并 - %d 个任务, %d 个FilingId", tasks.size(), filingIds.size()));
+        
+        try {
+            Map<Long, Long> mergedCounts = transactionTemplate.execute(status -> {
+                // 1. 删除这些filing_id的现有合并记录（如果存在）
+                int deletedCount = mergeHoldingMapper.deleteByFilingIds(filingIds);
+                if (deletedCount > 0) {
+                    logger.info(String.format("🗑️ 删除现有合并记录: %d 条", deletedCount));
+                }
                 
-                mergeHoldings.add(mergeHolding);
-            }
-            
-            // 4. 批量插入合并记录
-            if (!mergeHoldings.isEmpty()) {
-                int insertedCount = mergeHoldingMapper.batchInsert(mergeHoldings);
+                // 2. 在数据库中聚合并写入合并记录
+                int insertedCount = mergeHoldingMapper.insertAggregatedByFilingIds(filingIds);
                 logger.info(String.format("✅ 成功插入 %d 条合并持仓记录", insertedCount));
                 
-                // 5. 验证插入结果
-                long totalCount = mergeHoldingMapper.countByFilingId(filingId);
-                
-                String resultMessage = String.format(
-                    "持仓合并任务完成 - FilingId: %d, CIK: %s, 合并后记录数: %d, 原始记录聚合数: %d", 
-                    filingId, cik, totalCount, aggregatedData.size()
-                );
-                
-                logger.info("🎉 " + resultMessage);
-                return TaskResult.success(resultMessage);
-            } else {
-                return TaskResult.failure("没有生成合并记录");
+                // 3. 统计每个filing的合并记录数
+                Map<Long, Long> counts = new HashMap<>();
+                for (Map<String, Object> row : mergeHoldingMapper.countGroupByFilingIds(filingIds)) {
+                    counts.put(getLongValue(row, "filing_id"), getLongValue(row, "merged_count"));
+                }
+                return counts;
+            });
+            
+            for (Map.Entry<Long, List<Task>> entry : tasksByFilingId.entrySet()) {
+                Long filingId = entry.getKey();
+                Long mergedCount = mergedCounts != null ? mergedCounts.get(filingId) : null;
+                for (Task task : entry.getValue()) {
+                    if (mergedCount == null || mergedCount == 0) {
+                        results.put(task.getTaskId(), TaskResult.failure("未找到filing_id=" + filingId + "的持仓数据"));
+                        continue;
+                    }
+                    TaskParameters params = new TaskParameters(task.getTaskParameters());
+                    String resultMessage = String.format(
+                        "持仓合并任务完成 - FilingId: %d, CIK: %s, 合并后记录数: %d",
+                        filingId, params.getString("cik"), mergedCount
+                    );
+                    results.put(task.getTaskId(), TaskResult.success(resultMessage));
+                }
             }
+            logger.info(String.format("🎉 持仓合并完成 - %d 个FilingId", filingIds.size()));
             
         } catch (Exception e) {
-            logger.error(String.format("💥 持仓合并任务执行失败 - TaskId: %s", task.getTaskId()), e);
-            return TaskResult.failure("持仓合并任务执行失败: " + e.getMessage(), e);
+            logger.error(String.format("💥 持仓合并任务执行失败 - FilingIds: %s", filingIds), e);
+            for (List<Task> filingTasks : tasksByFilingId.values()) {
+                for (Task task : filingTasks) {
+                    results.put(task.getTaskId(), TaskResult.failure("持仓合并任务执行失败: " + e.getMessage(), e));
+                }
+            }
         }
+        return results;
     }
     
     @Override
@@ -123,27 +149,4 @@ public class HoldingMergeTaskProcessPlugin implements TaskProcessPlugin {
             return null;
         }
     }
-    
-    /**
-     * 安全获取String值
-     */
-    private String getStringValue(Map<String, Object> data, String key) {
-        Object value = data.get(key);
-        return value != null ? value.toString() : null;
-    }
-    
-    /**
-     * 安全获取BigDecimal值
-     */
-    private BigDecimal getBigDecimalValue(Map<String, Object> data, String key) {
-        Object value = data.get(key);
-        if (value == null) return null;
-        if (value instanceof BigDecimal) return (BigDecimal) value;
-        if (value instanceof Number) return BigDecimal.valueOf(((Number) value).doubleValue());
-        try {
-            return new BigDecimal(value.toString());
-        } catch (NumberFormatException e) {
-            return null;
-        }
-    }
 }
\ No newline at end of file
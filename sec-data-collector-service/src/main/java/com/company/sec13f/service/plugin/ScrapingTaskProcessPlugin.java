@@ -4,15 +4,17 @@ import com.company.sec13f.repository.entity.Task;
 import com.company.sec13f.repository.enums.TaskType;
 import com.company.sec13f.repository.mapper.FilingMapper;
 import com.company.sec13f.repository.mapper.HoldingMapper;
+import com.company.sec13f.repository.model.HoldingRowBuffer;
+import com.company.sec13f.service.TaskSubmitter;
 import com.company.sec13f.service.scraper.RealSECScraper;
 import com.company.sec13f.service.util.DataValidator;
 import com.company.sec13f.service.util.Logger;
-import com.company.sec13f.repository.mapper.TaskMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import java.util.List;
 import java.util.ArrayList;
+import java.util.Collections;
 
 /**
  * 数据抓取任务处理插件
@@ -21,18 +23,21 @@ import java.util.ArrayList;
 @Component
 public class ScrapingTaskProcessPlugin implements TaskProcessPlugin {
     
+    /** 单条批量INSERT语句包含的最大持仓行数 */
+    private static final int HOLDING_INSERT_BATCH_SIZE = 1000;
+    
     private final RealSECScraper scraper;
     private final FilingMapper filingMapper;
     private final HoldingMapper holdingMapper;
-    private final TaskMapper taskMapper;
+    private final TaskSubmitter taskSubmitter;
     private final Logger logger;
     
     @Autowired
-    public ScrapingTaskProcessPlugin(FilingMapper filingMapper, HoldingMapper holdingMapper, TaskMapper taskMapper) {
+    public ScrapingTaskProcessPlugin(FilingMapper filingMapper, HoldingMapper holdingMapper, TaskSubmitter taskSubmitter) {
         this.scraper = new RealSECScraper();
         this.filingMapper = filingMapper;
         this.holdingMapper = holdingMapper;
-        this.taskMapper = taskMapper;
+        this.taskSubmitter = taskSubmitter;
         this.logger = Logger.getInstance();
     }
     
@@ -45,7 +50,7 @@ public class ScrapingTaskProcessPlugin implements TaskProcessPlugin {
             String companyName = params.getString("companyName");
             
             if (cik == null || companyName == null) {
-                return TaskResult.failure("任务参数不完整：缺少CIK或公司名称");
+                return TaskResult.permanentFailure("任务参数不完整：缺少CIK或公司名称");
             }
             
             logger.scrapingStarted(cik, companyName);
@@ -65,19 +70,15 @@ public class ScrapingTaskProcessPlugin implements TaskProcessPlugin {
                     filing.setCik(cik);
                     
                     // 验证数据
-                    DataValidator.ValidationResult validation = DataValidator.validateFiling(filing);
+                    DataValidator.ValidationResult validation = DataValidator.validateFiling(filing, filing.isHoldingsValidated());
                     if (validation.isValid()) {
                         // 转换为Entity对象并保存到数据库
                         com.company.sec13f.repository.entity.Filing entityFiling = convertToEntity(filing);
                         int inserted = filingMapper.insert(entityFiling);
                         if (inserted > 0) {
                             // 如果Filing有持仓数据，也保存持仓信息
-                            if (filing.getHoldings() != null && !filing.getHoldings().isEmpty()) {
-                                for (com.company.sec13f.repository.model.Holding modelHolding : filing.getHoldings()) {
-                                    com.company.sec13f.repository.entity.Holding entityHolding = convertToEntity(modelHolding);
-                                    entityHolding.setFilingId(entityFiling.getId());
-                                    holdingMapper.insert(entityHolding);
-                                }
+                            if (filing.getHoldingCount() > 0) {
+                                saveHoldings(entityFiling.getId(), cik, companyName, filing.toHoldingRows());
                                 // 记录有持仓数据的filing ID，用于后续创建合并任务
                                 newFilingIds.add(entityFiling.getId());
                             }
@@ -96,30 +97,23 @@ public class ScrapingTaskProcessPlugin implements TaskProcessPlugin {
             String resultMessage = "成功爬取并保存了 " + savedCount + " 个新的13F文件";
             logger.info(resultMessage);
             
-            // 为每个新的有持仓数据的filing创建HOLDING_MERGE任务
+            // 为每个新的有持仓数据的filing创建HOLDING_MERGE任务，作为本任务的下游：
+            // 本任务完成写回时在同一事务中释放并立即派发，无需等待轮询
             if (!newFilingIds.isEmpty()) {
-                int mergeTasksCreated = 0;
+                List<String> mergeParametersList = new ArrayList<>(newFilingIds.size());
                 for (Long filingId : newFilingIds) {
-                    try {
-                        TaskParameters mergeParams = TaskParameters.forHoldingMerge(filingId, cik, companyName);
-                        
-                        // 直接创建任务对象并插入数据库，避免循环依赖
-                        com.company.sec13f.repository.entity.Task mergeTask = new com.company.sec13f.repository.entity.Task(
-                            java.util.UUID.randomUUID().toString(), 
-                            TaskType.HOLDING_MERGE
-                        );
-                        mergeTask.setTaskParameters(mergeParams.toJson());
-                        
-                        taskMapper.insert(mergeTask);
-                        logger.info(String.format("📊 创建持仓合并任务: %s for FilingId: %d", mergeTask.getTaskId(), filingId));
-                        mergeTasksCreated++;
-                    } catch (Exception e) {
-                        logger.warn(String.format("⚠️ 创建持仓合并任务失败 for FilingId: %d, 错误: %s", filingId, e.getMessage()));
-                    }
+                    mergeParametersList.add(TaskParameters.forHoldingMerge(filingId, cik, companyName).toJson());
                 }
-                
-                if (mergeTasksCreated > 0) {
-                    resultMessage += String.format("，并创建了 %d 个持仓合并任务", mergeTasksCreated);
+                try {
+                    // 通过TaskSubmitter批量入库，避免与TaskService循环依赖
+                    List<String> mergeTaskIds = taskSubmitter.submitDependent(TaskType.HOLDING_MERGE,
+                        mergeParametersList, Collections.singletonList(task.getTaskId()));
+                    logger.info(String.format("📊 创建持仓合并任务: %d 个 for FilingIds: %s", mergeTaskIds.size(), newFilingIds));
+                    if (!mergeTaskIds.isEmpty()) {
+                        resultMessage += String.format("，并创建了 %d 个持仓合并任务", mergeTaskIds.size());
+                    }
+                } catch (Exception e) {
+                    logger.warn(String.format("⚠️ 创建持仓合并任务失败 for FilingIds: %s, 错误: %s", newFilingIds, e.getMessage()));
                 }
             }
             
@@ -185,18 +179,13 @@ public class ScrapingTaskProcessPlugin implements TaskProcessPlugin {
     }
     
     /**
-     * 将model.Holding转换为entity.Holding
+     * 按批次将列式缓冲区中的持仓写入数据库
      */
-    private com.company.sec13f.repository.entity.Holding convertToEntity(com.company.sec13f.repository.model.Holding modelHolding) {
-        com.company.sec13f.repository.entity.Holding entityHolding = new com.company.sec13f.repository.entity.Holding();
-        entityHolding.setNameOfIssuer(modelHolding.getNameOfIssuer());
-        entityHolding.setCusip(modelHolding.getCusip());
-        entityHolding.setValue(modelHolding.getValue());
-        entityHolding.setShares(modelHolding.getShares());
-        entityHolding.setCik(modelHolding.getCik());
-        entityHolding.setCompanyName(modelHolding.getCompanyName());
-        entityHolding.setCreatedAt(java.time.LocalDateTime.now());
-        entityHolding.setUpdatedAt(java.time.LocalDateTime.now());
-        return entityHolding;
+    private void saveHoldings(Long filingId, String cik, String companyName, HoldingRowBuffer rows) {
+        for (int from = 0; from < rows.size(); from += HOLDING_INSERT_BATCH_SIZE) {
+            int to = Math.min(from + HOLDING_INSERT_BATCH_SIZE, rows.size());
+            holdingMapper.batchInsertRows(filingId, cik, companyName, rows, rows.rowIndexes(from, to));
+        }
+        logger.debug("💾 批量保存持仓: FilingId=" + filingId + ", 行数=" + rows.size());
     }
-}
\ No newline at end of file
+}
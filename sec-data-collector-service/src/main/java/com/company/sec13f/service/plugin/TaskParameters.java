@@ -1,5 +1,7 @@
 package com.company.sec13f.service.plugin;
 
+import com.company.sec13f.repository.enums.TaskType;
+import com.company.sec13f.service.util.Utils;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
@@ -105,6 +107,39 @@ public class TaskParameters {
         return toJson();
     }
     
+    /**
+     * 计算任务去重键：抓取类任务按CIK（去掉前导0），持仓合并任务按filingId；
+     * 其他类型或缺少业务键时返回null，表示不去重
+     */
+    public String toDedupKey(TaskType taskType) {
+        if (taskType == null) {
+            return null;
+        }
+        switch (taskType) {
+            case SCRAP_HOLDING:
+            case SEC_SCRAPING:
+            case SCRAP_FINANCIAL_REPORT:
+                String cik = Utils.normalizeCik(getString("cik"));
+                return cik != null ? taskType.name() + ":" + cik : null;
+            case HOLDING_MERGE:
+                Long filingId = getLong("filingId");
+                return filingId != null ? taskType.name() + ":" + filingId : null;
+            default:
+                return null;
+        }
+    }
+    
+    /**
+     * 由JSON格式的任务参数计算去重键，参数无法解析时返回null（不去重）
+     */
+    public static String dedupKeyOf(TaskType taskType, String json) {
+        try {
+            return new TaskParameters(json).toDedupKey(taskType);
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+    
     // 静态工厂方法用于创建数据抓取任务参数
     public static TaskParameters forScraping(String cik, String companyName) {
         return new TaskParameters()
@@ -3,9 +3,17 @@ package com.company.sec13f.service.plugin;
 import com.company.sec13f.repository.entity.Task;
 import com.company.sec13f.repository.enums.TaskType;
 
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
 /**
  * 任务处理插件接口
  * 不同类型的任务通过实现此接口来提供具体的处理逻辑
+ *
+ * 插件可以选择支持批量执行：{@link #supportsBatch()} 返回true且该类型配置的
+ * sec-collector.task.pools.&lt;TYPE&gt;.batch-size 大于1时，TaskService把一次认领到的同类型任务
+ * 按批交给 {@link #handleBatch(List)}，插件可在一批任务间共用连接、事务和HTTP会话
  */
 public interface TaskProcessPlugin {
     
@@ -21,4 +29,24 @@ public interface TaskProcessPlugin {
      * @return 任务类型
      */
     TaskType getTaskType();
-}
\ No newline at end of file
+    
+    /**
+     * 是否支持批量执行，支持时应重写 {@link #handleBatch(List)}
+     */
+    default boolean supportsBatch() {
+        return false;
+    }
+    
+    /**
+     * 批量执行同类型的任务，默认逐个调用 {@link #handleTask(Task)}
+     * @param tasks 任务实体
+     * @return 以taskId为键的执行结果，应包含每个传入的任务；缺少的任务按失败处理
+     */
+    default Map<String, TaskResult> handleBatch(List<Task> tasks) {
+        Map<String, TaskResult> results = new LinkedHashMap<>();
+        for (Task task : tasks) {
+            results.put(task.getTaskId(), handleTask(task));
+        }
+        return results;
+    }
+}
@@ -8,23 +8,36 @@ public class TaskResult {
     private boolean success;
     private String message;
     private Throwable error;
+    private boolean retryable;
     
-    private TaskResult(boolean success, String message, Throwable error) {
+    private TaskResult(boolean success, String message, Throwable error, boolean retryable) {
         this.success = success;
         this.message = message;
         this.error = error;
+        this.retryable = retryable;
     }
     
     public static TaskResult success(String message) {
-        return new TaskResult(true, message, null);
+        return new TaskResult(true, message, null, false);
     }
     
     public static TaskResult failure(String message) {
-        return new TaskResult(false, message, null);
+        return new TaskResult(false, message, null, true);
     }
     
     public static TaskResult failure(String message, Throwable error) {
-        return new TaskResult(false, message, error);
+        return new TaskResult(false, message, error, true);
+    }
+    
+    /**
+     * 重试也不会成功的失败（如任务参数错误），任务直接标记为FAILED
+     */
+    public static TaskResult permanentFailure(String message) {
+        return new TaskResult(false, message, null, false);
+    }
+    
+    public static TaskResult permanentFailure(String message, Throwable error) {
+        return new TaskResult(false, message, error, false);
     }
     
     public boolean isSuccess() {
@@ -39,12 +52,20 @@ public class TaskResult {
         return error;
     }
     
+    /**
+     * 失败后是否可以重试
+     */
+    public boolean isRetryable() {
+        return retryable;
+    }
+    
     @Override
     public String toString() {
         return "TaskResult{" +
                 "success=" + success +
                 ", message='" + message + '\'' +
                 ", error=" + error +
+                ", retryable=" + retryable +
                 '}';
     }
 }
\ No newline at end of file
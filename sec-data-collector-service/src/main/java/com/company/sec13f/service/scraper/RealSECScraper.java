@@ -1,10 +1,11 @@
 package com.company.sec13f.service.scraper;
 
 import com.company.sec13f.repository.model.Filing;
-import com.company.sec13f.repository.model.Holding;
+import com.company.sec13f.repository.model.HoldingRowBuffer;
 import com.company.sec13f.service.parser.Enhanced13FXMLParser;
 import com.company.sec13f.service.parser.HTML13FParser;
 import com.company.sec13f.service.util.Logger;
+import com.company.sec13f.service.util.StreamingHoldingValidator;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.apache.http.HttpEntity;
@@ -18,11 +19,13 @@ import org.apache.http.util.EntityUtils;
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.nio.CharBuffer;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Real SEC scraper that retrieves actual 13F filings from SEC EDGAR database
@@ -37,7 +40,9 @@ public class RealSECScraper implements Closeable {
     private final PoolingHttpClientConnectionManager connectionManager;
     private final ObjectMapper objectMapper;
     private final Logger logger;
-    private long lastRequestTime = 0;
+    // 多个任务线程共享同一个scraper，用锁分配请求时间槽；使用ReentrantLock而非synchronized，避免固定虚拟线程
+    private final ReentrantLock rateLimitLock = new ReentrantLock();
+    private long nextRequestTime = 0;
 
     public RealSECScraper() {
         // 创建连接池管理器
@@ -144,24 +149,27 @@ public class RealSECScraper implements Closeable {
             String submissionContent = executeGetRequest(submissionFileUrl);
             
             if (submissionContent != null) {
+                // 一次扫描建立分段索引，头部字段和Information Table共享同一份内容
+                SubmissionDocumentIndex index = SubmissionDocumentIndex.build(submissionContent);
+                
                 // 从SEC-DOCUMENT节点提取form_file
-                String formFile = extractFormFileFromSecDocument(submissionContent);
+                String formFile = extractFormFileFromSecDocument(index);
                 
                 // 从提交文件头部提取EFFECTIVENESS DATE作为filingDate
-                LocalDate effectivenessDate = extractEffectivenessDate(submissionContent);
+                LocalDate effectivenessDate = extractEffectivenessDate(index);
                 
                 // 从提交文件头部提取CONFORMED PERIOD OF REPORT作为reportPeriod
-                String reportPeriod = extractConformedPeriodOfReport(submissionContent);
+                String reportPeriod = extractConformedPeriodOfReport(index);
                 
                 // 直接从提交文件中解析Information Table部分的持仓信息
-                String informationTableXml = extractInformationTableContent(submissionContent);
+                String informationTableXml = extractInformationTableContent(index);
                 
                 if (informationTableXml != null && !informationTableXml.trim().isEmpty()) {
                     logger.info("✅ 直接从提交文件中提取到Information Table内容");
                     // 解析XML内容获取持仓数据，使用提取的生效日期、报告期间和form_file
                     Filing filing = parse13FContentWithDateAndReportPeriod(informationTableXml, accessionNumber, cik, effectivenessDate, reportPeriod, formFile);
-                    if (filing != null && filing.getHoldings() != null && !filing.getHoldings().isEmpty()) {
-                        logger.info("📈 成功解析 " + filing.getHoldings().size() + " 条持仓记录");
+                    if (filing != null && filing.getHoldingCount() > 0) {
+                        logger.info("📈 成功解析 " + filing.getHoldingCount() + " 条持仓记录");
                         return filing;
                     }
                 } else {
@@ -179,64 +187,21 @@ public class RealSECScraper implements Closeable {
     /**
      * 从13F提交文件中直接提取Information Table的XML内容
      */
-    private String extractInformationTableContent(String submissionContent) {
+    private String extractInformationTableContent(SubmissionDocumentIndex index) {
         try {
-            // 查找INFORMATION TABLE类型的文档
-            String[] lines = submissionContent.split("\n");
-            boolean inInfoTableDocument = false;
-            boolean inTextSection = false;
-            boolean inXmlSection = false;
-            StringBuilder xmlContent = new StringBuilder();
+            SubmissionDocumentIndex.Section infoTable = index.findDocument("INFORMATION TABLE");
+            if (infoTable == null) {
+                return null;
+            }
+            logger.debug("🔍 找到INFORMATION TABLE文档部分");
             
-            for (String line : lines) {
-                String trimmedLine = line.trim();
-                
-                // 检测INFORMATION TABLE文档的开始
-                if (trimmedLine.equals("<TYPE>INFORMATION TABLE")) {
-                    inInfoTableDocument = true;
-                    logger.debug("🔍 找到INFORMATION TABLE文档部分");
-                    continue;
-                }
-                
-                // 如果在INFORMATION TABLE文档中
-                if (inInfoTableDocument) {
-                    // 检测TEXT部分的开始
-                    if (trimmedLine.equals("<TEXT>")) {
-                        inTextSection = true;
-                        logger.debug("🔍 找到TEXT部分");
-                        continue;
-                    }
-                    
-                    // 如果在TEXT部分中
-                    if (inTextSection) {
-                        // 检测XML部分的开始
-                        if (trimmedLine.equals("<XML>")) {
-                            inXmlSection = true;
-                            logger.debug("🔍 找到XML部分");
-                            continue;
-                        }
-                        
-                        // 检测XML部分的结束
-                        if (trimmedLine.equals("</XML>")) {
-                            inXmlSection = false;
-                            logger.debug("✅ XML部分结束，提取到 " + xmlContent.length() + " 个字符");
-                            break;
-                        }
-                        
-                        // 如果在XML部分中，收集XML内容
-                        if (inXmlSection) {
-                            xmlContent.append(line).append("\n");
-                        }
-                    }
-                    
-                    // 遇到新的文档类型时退出
-                    if (trimmedLine.startsWith("<TYPE>") && !trimmedLine.equals("<TYPE>INFORMATION TABLE")) {
-                        break;
-                    }
-                }
+            CharBuffer xml = infoTable.xml();
+            if (xml == null) {
+                return null;
             }
             
-            String result = xmlContent.toString().trim();
+            // 解析器需要String，此处仅做一次整体物化
+            String result = xml.toString().trim();
             if (!result.isEmpty()) {
                 logger.debug("📊 成功提取Information Table XML内容，长度: " + result.length() + " 字符");
                 return result;
@@ -252,46 +217,27 @@ public class RealSECScraper implements Closeable {
     /**
      * 从13F提交文件头部提取EFFECTIVENESS DATE作为filingDate
      */
-    private LocalDate extractEffectivenessDate(String submissionContent) {
-        try {
-            String[] lines = submissionContent.split("\n");
-            
-            for (String line : lines) {
-                String trimmedLine = line.trim();
-                
-                // 查找EFFECTIVENESS DATE字段
-                if (trimmedLine.startsWith("EFFECTIVENESS DATE:")) {
-                    String dateStr = trimmedLine.substring("EFFECTIVENESS DATE:".length()).trim();
-                    
-                    try {
-                        // SEC日期格式通常为 YYYYMMDD
-                        if (dateStr.length() == 8 && dateStr.matches("\\d{8}")) {
-                            LocalDate effectivenessDate = LocalDate.parse(dateStr, DateTimeFormatter.ofPattern("yyyyMMdd"));
-                            logger.debug("📅 提取到EFFECTIVENESS DATE: " + effectivenessDate);
-                            return effectivenessDate;
-                        }
-                        
-                        // 如果是其他格式，尝试YYYY-MM-DD
-                        if (dateStr.length() == 10 && dateStr.matches("\\d{4}-\\d{2}-\\d{2}")) {
-                            LocalDate effectivenessDate = LocalDate.parse(dateStr);
-                            logger.debug("📅 提取到EFFECTIVENESS DATE: " + effectivenessDate);
-                            return effectivenessDate;
-                        }
-                        
-                    } catch (Exception e) {
-                        logger.debug("❌ 解析EFFECTIVENESS DATE失败: " + dateStr + " - " + e.getMessage());
-                    }
-                    break;
+    private LocalDate extractEffectivenessDate(SubmissionDocumentIndex index) {
+        String dateStr = index.headerValue("EFFECTIVENESS DATE");
+        if (dateStr != null) {
+            try {
+                // SEC日期格式通常为 YYYYMMDD
+                if (dateStr.length() == 8 && dateStr.matches("\\d{8}")) {
+                    LocalDate effectivenessDate = LocalDate.parse(dateStr, DateTimeFormatter.ofPattern("yyyyMMdd"));
+                    logger.debug("📅 提取到EFFECTIVENESS DATE: " + effectivenessDate);
+                    return effectivenessDate;
                 }
                 
-                // 如果遇到DOCUMENT开始，说明已经跳出了头部区域
-                if (trimmedLine.equals("<DOCUMENT>")) {
-                    break;
+                // 如果是其他格式，尝试YYYY-MM-DD
+                if (dateStr.length() == 10 && dateStr.matches("\\d{4}-\\d{2}-\\d{2}")) {
+                    LocalDate effectivenessDate = LocalDate.parse(dateStr);
+                    logger.debug("📅 提取到EFFECTIVENESS DATE: " + effectivenessDate);
+                    return effectivenessDate;
                 }
+                
+            } catch (Exception e) {
+                logger.debug("❌ 解析EFFECTIVENESS DATE失败: " + dateStr + " - " + e.getMessage());
             }
-            
-        } catch (Exception e) {
-            logger.debug("❌ 提取EFFECTIVENESS DATE时出错: " + e.getMessage());
         }
         
         logger.debug("⚠️ 未找到EFFECTIVENESS DATE，将使用默认日期");
@@ -301,33 +247,11 @@ public class RealSECScraper implements Closeable {
     /**
      * 从SEC-DOCUMENT节点提取form_file
      */
-    private String extractFormFileFromSecDocument(String submissionContent) {
-        try {
-            String[] lines = submissionContent.split("\n");
-            
-            for (String line : lines) {
-                String trimmedLine = line.trim();
-                
-                // 查找SEC-DOCUMENT节点: <SEC-DOCUMENT>filename.txt : timestamp
-                if (trimmedLine.startsWith("<SEC-DOCUMENT>")) {
-                    String content = trimmedLine.substring("<SEC-DOCUMENT>".length()).trim();
-                    
-                    // 提取文件名部分（在" : "之前）
-                    int colonIndex = content.indexOf(" : ");
-                    if (colonIndex > 0) {
-                        String fileName = content.substring(0, colonIndex).trim();
-                        logger.debug("📄 从SEC-DOCUMENT节点提取到form_file: " + fileName);
-                        return fileName;
-                    } else {
-                        // 如果没有时间戳部分，整个内容就是文件名
-                        logger.debug("📄 从SEC-DOCUMENT节点提取到form_file: " + content);
-                        return content;
-                    }
-                }
-            }
-            
-        } catch (Exception e) {
-            logger.debug("❌ 提取form_file时出错: " + e.getMessage());
+    private String extractFormFileFromSecDocument(SubmissionDocumentIndex index) {
+        String fileName = index.secDocumentFileName();
+        if (fileName != null) {
+            logger.debug("📄 从SEC-DOCUMENT节点提取到form_file: " + fileName);
+            return fileName;
         }
         
         logger.debug("⚠️ 未找到SEC-DOCUMENT节点，将使用默认form_file");
@@ -337,53 +261,31 @@ public class RealSECScraper implements Closeable {
     /**
      * 从13F提交文件头部提取CONFORMED PERIOD OF REPORT作为reportPeriod
      */
-    private String extractConformedPeriodOfReport(String submissionContent) {
-        try {
-            String[] lines = submissionContent.split("\n");
-            
-            for (String line : lines) {
-                String trimmedLine = line.trim();
-                
-                // 查找CONFORMED PERIOD OF REPORT字段
-                if (trimmedLine.startsWith("CONFORMED PERIOD OF REPORT:")) {
-                    String dateStr = trimmedLine.substring("CONFORMED PERIOD OF REPORT:".length()).trim();
+    private String extractConformedPeriodOfReport(SubmissionDocumentIndex index) {
+        String dateStr = index.headerValue("CONFORMED PERIOD OF REPORT");
+        if (dateStr != null) {
+            try {
+                // SEC日期格式通常为 YYYYMMDD，转换为YYYY-MM-DD
+                if (dateStr.length() == 8 && dateStr.matches("\\d{8}")) {
+                    String formattedDate = dateStr.substring(0, 4) + "-" + dateStr.substring(4, 6) + "-" + dateStr.substring(6, 8);
                     
-                    try {
-                        // SEC日期格式通常为 YYYYMMDD，转换为YYYY-MM-DD
-                        if (dateStr.length() == 8 && dateStr.matches("\\d{8}")) {
-                            String year = dateStr.substring(0, 4);
-                            String month = dateStr.substring(4, 6);
-                            String day = dateStr.substring(6, 8);
-                            String formattedDate = year + "-" + month + "-" + day;
-                            
-                            // 验证日期格式
-                            LocalDate.parse(formattedDate);
-                            logger.debug("📅 提取到CONFORMED PERIOD OF REPORT: " + formattedDate);
-                            return formattedDate;
-                        }
-                        
-                        // 如果是其他格式，尝试YYYY-MM-DD
-                        if (dateStr.length() == 10 && dateStr.matches("\\d{4}-\\d{2}-\\d{2}")) {
-                            // 验证日期格式
-                            LocalDate.parse(dateStr);
-                            logger.debug("📅 提取到CONFORMED PERIOD OF REPORT: " + dateStr);
-                            return dateStr;
-                        }
-                        
-                    } catch (Exception e) {
-                        logger.debug("❌ 解析CONFORMED PERIOD OF REPORT失败: " + dateStr + " - " + e.getMessage());
-                    }
-                    break;
+                    // 验证日期格式
+                    LocalDate.parse(formattedDate);
+                    logger.debug("📅 提取到CONFORMED PERIOD OF REPORT: " + formattedDate);
+                    return formattedDate;
                 }
                 
-                // 如果遇到DOCUMENT开始，说明已经跳出了头部区域
-                if (trimmedLine.equals("<DOCUMENT>")) {
-                    break;
+                // 如果是其他格式，尝试YYYY-MM-DD
+                if (dateStr.length() == 10 && dateStr.matches("\\d{4}-\\d{2}-\\d{2}")) {
+                    // 验证日期格式
+                    LocalDate.parse(dateStr);
+                    logger.debug("📅 提取到CONFORMED PERIOD OF REPORT: " + dateStr);
+                    return dateStr;
                 }
+                
+            } catch (Exception e) {
+                logger.debug("❌ 解析CONFORMED PERIOD OF REPORT失败: " + dateStr + " - " + e.getMessage());
             }
-            
-        } catch (Exception e) {
-            logger.debug("❌ 提取CONFORMED PERIOD OF REPORT时出错: " + e.getMessage());
         }
         
         logger.debug("⚠️ 未找到CONFORMED PERIOD OF REPORT，将使用默认日期");
@@ -417,8 +319,8 @@ public class RealSECScraper implements Closeable {
                     Filing filing = parse13FContent(content, accessionNumber, cik);
                     if (filing != null) {
                         filing.setFormFile(fileName.substring(1)); // 移除开头的"/"
-                        if (filing.getHoldings() != null && !filing.getHoldings().isEmpty()) {
-                            logger.info("📈 成功解析 " + filing.getHoldings().size() + " 条持仓记录");
+                        if (filing.getHoldingCount() > 0) {
+                            logger.info("📈 成功解析 " + filing.getHoldingCount() + " 条持仓记录");
                             return filing;
                         }
                     }
@@ -435,30 +337,32 @@ public class RealSECScraper implements Closeable {
      * 解析13F文件内容 - 自动检测格式并使用合适的解析器
      */
     private Filing parse13FContent(String content, String accessionNumber, String cik) {
-        // 检测内容格式（HTML vs XML）
+        // 检测内容格式（HTML vs XML），解析时逐行校验持仓
+        StreamingHoldingValidator validator = new StreamingHoldingValidator();
+        Filing filing;
         if (isHTMLFormat(content)) {
             logger.info("🌐 检测到HTML格式，使用HTML解析器");
-            return HTML13FParser.parseHTML13FContent(content, accessionNumber, cik);
+            filing = HTML13FParser.parseHTML13FContent(content, accessionNumber, cik, validator);
         } else {
             logger.info("📄 检测到XML格式，使用XML解析器");
-            return Enhanced13FXMLParser.parse13FContent(content, accessionNumber, cik);
+            filing = Enhanced13FXMLParser.parse13FContent(content, accessionNumber, cik, validator);
+        }
+        
+        if (validator.hasRejections() || validator.getWarningCount() > 0) {
+            logger.info("🧪 " + accessionNumber + " " + validator.getSummary());
+        }
+        if (filing != null) {
+            filing.setHoldingsValidated(true);
         }
+        return filing;
     }
 
     /**
      * 解析13F文件内容 - 自动检测格式并设置指定的生效日期
      */
     private Filing parse13FContentWithDate(String content, String accessionNumber, String cik, LocalDate effectivenessDate) {
-        Filing filing;
-        
         // 检测内容格式并使用合适的解析器
-        if (isHTMLFormat(content)) {
-            logger.info("🌐 检测到HTML格式，使用HTML解析器");
-            filing = HTML13FParser.parseHTML13FContent(content, accessionNumber, cik);
-        } else {
-            logger.info("📄 检测到XML格式，使用XML解析器");
-            filing = Enhanced13FXMLParser.parse13FContent(content, accessionNumber, cik);
-        }
+        Filing filing = parse13FContent(content, accessionNumber, cik);
         
         // 如果提取到了生效日期，则使用它作为filing date
         if (filing != null && effectivenessDate != null) {
@@ -474,16 +378,8 @@ public class RealSECScraper implements Closeable {
      */
     private Filing parse13FContentWithDateAndFile(String content, String accessionNumber, String cik, 
                                                   LocalDate effectivenessDate, String formFile) {
-        Filing filing;
-        
         // 检测内容格式并使用合适的解析器
-        if (isHTMLFormat(content)) {
-            logger.info("🌐 检测到HTML格式，使用HTML解析器");
-            filing = HTML13FParser.parseHTML13FContent(content, accessionNumber, cik);
-        } else {
-            logger.info("📄 检测到XML格式，使用XML解析器");
-            filing = Enhanced13FXMLParser.parse13FContent(content, accessionNumber, cik);
-        }
+        Filing filing = parse13FContent(content, accessionNumber, cik);
         
         if (filing != null) {
             // 如果提取到了生效日期，则使用它作为filing date
@@ -507,16 +403,8 @@ public class RealSECScraper implements Closeable {
      */
     private Filing parse13FContentWithDateAndReportPeriod(String content, String accessionNumber, String cik, 
                                                           LocalDate effectivenessDate, String reportPeriod, String formFile) {
-        Filing filing;
-        
         // 检测内容格式并使用合适的解析器
-        if (isHTMLFormat(content)) {
-            logger.info("🌐 检测到HTML格式，使用HTML解析器");
-            filing = HTML13FParser.parseHTML13FContent(content, accessionNumber, cik);
-        } else {
-            logger.info("📄 检测到XML格式，使用XML解析器");
-            filing = Enhanced13FXMLParser.parse13FContent(content, accessionNumber, cik);
-        }
+        Filing filing = parse13FContent(content, accessionNumber, cik);
         
         if (filing != null) {
             // 如果提取到了生效日期，则使用它作为filing date
@@ -542,17 +430,23 @@ public class RealSECScraper implements Closeable {
     }
 
     /**
-     * 限制请求频率以符合SEC要求
+     * 限制请求频率以符合SEC要求（线程安全，所有并发任务共享每秒10次的额度）
      */
     private void rateLimitRequest() throws InterruptedException {
-        long currentTime = System.currentTimeMillis();
-        long timeSinceLastRequest = currentTime - lastRequestTime;
-        
-        if (timeSinceLastRequest < REQUEST_DELAY_MS) {
-            TimeUnit.MILLISECONDS.sleep(REQUEST_DELAY_MS - timeSinceLastRequest);
+        long waitMs;
+        rateLimitLock.lock();
+        try {
+            long currentTime = System.currentTimeMillis();
+            long requestTime = Math.max(currentTime, nextRequestTime);
+            nextRequestTime = requestTime + REQUEST_DELAY_MS;
+            waitMs = requestTime - currentTime;
+        } finally {
+            rateLimitLock.unlock();
         }
         
-        lastRequestTime = System.currentTimeMillis();
+        if (waitMs > 0) {
+            TimeUnit.MILLISECONDS.sleep(waitMs);
+        }
         
         // 在调试模式下显示连接池状态
         if (logger != null) {
@@ -764,8 +658,10 @@ public class RealSECScraper implements Closeable {
                         filing.setFormFile(fileName);
                         
                         // 获取持仓数据，传入从display_names解析的CIK和公司名称
-                        List<Holding> holdings = getHoldingsFromSearchResult(recordCik, companyName, accessionNumber, fileName, xsl);
-                        filing.setHoldings(holdings);
+                        HoldingRowBuffer holdings = getHoldingsFromSearchResult(recordCik, accessionNumber, fileName, xsl);
+                        filing.setHoldingRows(holdings);
+                        // 持仓已在解析时逐行校验
+                        filing.setHoldingsValidated(true);
                         
                         filings.add(filing);
                     }
@@ -796,7 +692,7 @@ public class RealSECScraper implements Closeable {
     /**
      * 根据搜索API结果获取持仓数据
      */
-    private List<Holding> getHoldingsFromSearchResult(String cik, String companyName, String accessionNumber, String fileName, String xsl) throws IOException, InterruptedException {
+    private HoldingRowBuffer getHoldingsFromSearchResult(String cik, String accessionNumber, String fileName, String xsl) throws IOException, InterruptedException {
         rateLimitRequest();
         
         // 构建完整的持仓文件URL
@@ -811,16 +707,10 @@ public class RealSECScraper implements Closeable {
             if (xmlContent != null && !xmlContent.trim().isEmpty()) {
                 // 使用智能格式检测和相应的解析器解析持仓数据
                 Filing tempFiling = parse13FContent(xmlContent, accessionNumber, cik);
-                List<Holding> holdings = (tempFiling != null) ? tempFiling.getHoldings() : new ArrayList<>();
-                
-                // 为每个holding设置CIK和公司名称
-                if (holdings != null) {
-                    for (Holding holding : holdings) {
-                        holding.setCik(cik);
-                        if (companyName != null && !companyName.trim().isEmpty()) {
-                            holding.setCompanyName(companyName);
-                        }
-                    }
+                // CIK和公司名称在写入时按申报绑定
+                HoldingRowBuffer holdings = tempFiling != null ? tempFiling.toHoldingRows() : null;
+                if (holdings == null) {
+                    holdings = new HoldingRowBuffer();
                 }
                 
                 logger.info("✅ 成功解析 " + holdings.size() + " 条持仓记录");
@@ -830,7 +720,7 @@ public class RealSECScraper implements Closeable {
             logger.warn("⚠️ 获取持仓数据失败: " + holdingsUrl + " - " + e.getMessage());
         }
         
-        return new ArrayList<>();
+        return new HoldingRowBuffer();
     }
 
     /**
@@ -0,0 +1,257 @@
+package com.company.sec13f.service.scraper;
+
+import java.nio.CharBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * SEC提交文件(.txt, SEC-DOCUMENT容器格式)的分段索引
+ *
+ * 一次扫描记录 SEC-HEADER 以及每个 DOCUMENT 的 TYPE/TEXT/XML 边界偏移量，
+ * 各分段以 CharBuffer 视图的形式暴露，与原始内容共享同一底层数组，不做逐行拷贝。
+ */
+public class SubmissionDocumentIndex {
+
+    private static final String SEC_DOCUMENT_TAG = "<SEC-DOCUMENT>";
+    private static final String DOCUMENT_START = "<DOCUMENT>";
+    private static final String DOCUMENT_END = "</DOCUMENT>";
+    private static final String TYPE_TAG = "<TYPE>";
+    private static final String TEXT_START = "<TEXT>";
+    private static final String TEXT_END = "</TEXT>";
+    private static final String XML_START = "<XML>";
+    private static final String XML_END = "</XML>";
+
+    private final CharSequence content;
+    private final int headerEnd;
+    private final int secDocumentStart;
+    private final int secDocumentEnd;
+    private final List<Section> documents;
+
+    private SubmissionDocumentIndex(CharSequence content, int headerEnd, int secDocumentStart,
+                                    int secDocumentEnd, List<Section> documents) {
+        this.content = content;
+        this.headerEnd = headerEnd;
+        this.secDocumentStart = secDocumentStart;
+        this.secDocumentEnd = secDocumentEnd;
+        this.documents = documents;
+    }
+
+    /**
+     * 扫描提交文件内容并建立分段索引
+     */
+    public static SubmissionDocumentIndex build(CharSequence content) {
+        int length = content.length();
+        int headerEnd = length;
+        int secDocumentStart = -1;
+        int secDocumentEnd = -1;
+        List<Section> documents = new ArrayList<>();
+
+        Section current = null;
+        boolean inText = false;
+
+        int lineStart = 0;
+        while (lineStart < length) {
+            int lineEnd = indexOf(content, '\n', lineStart, length);
+            int nextLine = lineEnd + 1;
+
+            // 计算去除首尾空白后的行范围
+            int start = lineStart;
+            int end = lineEnd;
+            while (start < end && Character.isWhitespace(content.charAt(start))) start++;
+            while (end > start && Character.isWhitespace(content.charAt(end - 1))) end--;
+
+            if (current == null) {
+                if (secDocumentStart < 0 && regionStartsWith(content, start, end, SEC_DOCUMENT_TAG)) {
+                    secDocumentStart = skipWhitespace(content, start + SEC_DOCUMENT_TAG.length(), end);
+                    secDocumentEnd = end;
+                } else if (regionEquals(content, start, end, DOCUMENT_START)) {
+                    if (documents.isEmpty()) {
+                        headerEnd = lineStart;
+                    }
+                    current = new Section(content, lineStart);
+                    inText = false;
+                }
+            } else if (regionEquals(content, start, end, DOCUMENT_END)) {
+                current.end = lineStart;
+                documents.add(current);
+                current = null;
+            } else if (!inText) {
+                if (current.type == null && regionStartsWith(content, start, end, TYPE_TAG)) {
+                    current.type = content.subSequence(start + TYPE_TAG.length(), end).toString().trim();
+                } else if (regionEquals(content, start, end, TEXT_START)) {
+                    inText = true;
+                    current.textStart = Math.min(nextLine, length);
+                }
+            } else if (regionEquals(content, start, end, TEXT_END)) {
+                inText = false;
+                current.textEnd = lineStart;
+            } else if (current.xmlStart < 0 && regionEquals(content, start, end, XML_START)) {
+                current.xmlStart = Math.min(nextLine, length);
+            } else if (current.xmlStart >= 0 && current.xmlEnd < 0 && regionEquals(content, start, end, XML_END)) {
+                current.xmlEnd = lineStart;
+            }
+
+            lineStart = nextLine;
+        }
+
+        // 容错：文件被截断时保留未闭合的最后一个DOCUMENT
+        if (current != null) {
+            current.end = length;
+            if (inText && current.textEnd < 0) {
+                current.textEnd = length;
+            }
+            documents.add(current);
+        }
+
+        return new SubmissionDocumentIndex(content, headerEnd, secDocumentStart, secDocumentEnd,
+                Collections.unmodifiableList(documents));
+    }
+
+    /**
+     * SEC-HEADER部分（第一个DOCUMENT之前的内容）
+     */
+    public CharBuffer header() {
+        return CharBuffer.wrap(content, 0, headerEnd);
+    }
+
+    /**
+     * 从SEC-HEADER中读取"KEY:"格式字段的值，找不到时返回null
+     */
+    public String headerValue(String key) {
+        String prefix = key.endsWith(":") ? key : key + ":";
+        int lineStart = 0;
+        while (lineStart < headerEnd) {
+            int lineEnd = indexOf(content, '\n', lineStart, headerEnd);
+            int start = skipWhitespace(content, lineStart, lineEnd);
+            if (regionStartsWith(content, start, lineEnd, prefix)) {
+                int valueStart = skipWhitespace(content, start + prefix.length(), lineEnd);
+                int valueEnd = lineEnd;
+                while (valueEnd > valueStart && Character.isWhitespace(content.charAt(valueEnd - 1))) valueEnd--;
+                return content.subSequence(valueStart, valueEnd).toString();
+            }
+            lineStart = lineEnd + 1;
+        }
+        return null;
+    }
+
+    /**
+     * SEC-DOCUMENT节点中的文件名（" : "时间戳之前的部分），找不到时返回null
+     */
+    public String secDocumentFileName() {
+        if (secDocumentStart < 0) {
+            return null;
+        }
+        String value = content.subSequence(secDocumentStart, secDocumentEnd).toString();
+        int colonIndex = value.indexOf(" : ");
+        return colonIndex > 0 ? value.substring(0, colonIndex).trim() : value;
+    }
+
+    /**
+     * 所有DOCUMENT分段（按出现顺序）
+     */
+    public List<Section> documents() {
+        return documents;
+    }
+
+    /**
+     * 查找第一个指定TYPE的DOCUMENT分段
+     */
+    public Section findDocument(String type) {
+        for (Section section : documents) {
+            if (type.equals(section.type)) {
+                return section;
+            }
+        }
+        return null;
+    }
+
+    private static int indexOf(CharSequence content, char c, int from, int limit) {
+        for (int i = from; i < limit; i++) {
+            if (content.charAt(i) == c) {
+                return i;
+            }
+        }
+        return limit;
+    }
+
+    private static int skipWhitespace(CharSequence content, int from, int limit) {
+        while (from < limit && Character.isWhitespace(content.charAt(from))) from++;
+        return from;
+    }
+
+    private static boolean regionStartsWith(CharSequence content, int start, int end, String prefix) {
+        if (end - start < prefix.length()) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length(); i++) {
+            if (content.charAt(start + i) != prefix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean regionEquals(CharSequence content, int start, int end, String value) {
+        return end - start == value.length() && regionStartsWith(content, start, end, value);
+    }
+
+    /**
+     * 单个DOCUMENT分段的偏移量范围
+     */
+    public static class Section {
+        private final CharSequence content;
+        private final int start;
+        private int end = -1;
+        private String type;
+        private int textStart = -1;
+        private int textEnd = -1;
+        private int xmlStart = -1;
+        private int xmlEnd = -1;
+
+        private Section(CharSequence content, int start) {
+            this.content = content;
+            this.start = start;
+        }
+
+        public String getType() {
+            return type;
+        }
+
+        public int getStart() {
+            return start;
+        }
+
+        public int getEnd() {
+            return end;
+        }
+
+        /**
+         * 整个DOCUMENT内容视图
+         */
+        public CharBuffer document() {
+            return CharBuffer.wrap(content, start, end);
+        }
+
+        /**
+         * TEXT部分视图，不存在时返回null
+         */
+        public CharBuffer text() {
+            if (textStart < 0) {
+                return null;
+            }
+            return CharBuffer.wrap(content, textStart, textEnd >= 0 ? textEnd : end);
+        }
+
+        /**
+         * TEXT中XML部分视图（&lt;XML&gt;与&lt;/XML&gt;之间），不存在时返回null
+         */
+        public CharBuffer xml() {
+            if (xmlStart < 0) {
+                return null;
+            }
+            int limit = xmlEnd >= 0 ? xmlEnd : (textEnd >= 0 ? textEnd : end);
+            return CharBuffer.wrap(content, xmlStart, Math.max(xmlStart, limit));
+        }
+    }
+}
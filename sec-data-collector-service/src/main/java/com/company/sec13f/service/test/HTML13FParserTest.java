@@ -49,20 +49,21 @@ public class HTML13FParserTest {
                 logger.info("🏢 CIK: " + filing.getCik());
                 logger.info("📅 申报日期: " + filing.getFilingDate());
                 logger.info("📅 报告期间: " + filing.getReportPeriod());
-                logger.info("📊 持仓数量: " + (filing.getHoldings() != null ? filing.getHoldings().size() : 0));
+                java.util.List<com.company.sec13f.repository.model.Holding> holdings = filing.getHoldings();
+                logger.info("📊 持仓数量: " + (holdings != null ? holdings.size() : 0));
                 
-                if (filing.getHoldings() != null && !filing.getHoldings().isEmpty()) {
+                if (holdings != null && !holdings.isEmpty()) {
                     logger.info("\n=== 持仓详情 (前5条) ===");
-                    for (int i = 0; i < Math.min(5, filing.getHoldings().size()); i++) {
-                        com.company.sec13f.repository.model.Holding holding = filing.getHoldings().get(i);
+                    for (int i = 0; i < Math.min(5, holdings.size()); i++) {
+                        com.company.sec13f.repository.model.Holding holding = holdings.get(i);
                         logger.info((i+1) + ". " + holding.getNameOfIssuer() + 
                                    " (CUSIP: " + holding.getCusip() + 
                                    ", 价值: " + holding.getValue() + 
                                    ", 股数: " + holding.getShares() + ")");
                     }
                     
-                    if (filing.getHoldings().size() > 5) {
-                        logger.info("... 还有 " + (filing.getHoldings().size() - 5) + " 条记录");
+                    if (holdings.size() > 5) {
+                        logger.info("... 还有 " + (holdings.size() - 5) + " 条记录");
                     }
                 } else {
                     logger.error("❌ 没有解析到任何持仓记录!");
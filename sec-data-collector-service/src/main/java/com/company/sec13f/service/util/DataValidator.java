@@ -2,6 +2,7 @@ package com.company.sec13f.service.util;
 
 import com.company.sec13f.repository.model.Filing;
 import com.company.sec13f.repository.model.Holding;
+import com.company.sec13f.repository.util.IssuerDictionary;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -14,11 +15,20 @@ public class DataValidator {
     private static final Pattern CIK_PATTERN = Pattern.compile("^\\d{10}$");
     private static final Pattern CUSIP_PATTERN = Pattern.compile("^[0-9A-Z]{9}$");
     private static final Pattern ACCESSION_PATTERN = Pattern.compile("^\\d{10}-\\d{2}-\\d{6}$");
+    private static final IssuerDictionary ISSUERS = IssuerDictionary.getInstance();
     
     /**
      * 验证并清理Filing对象
      */
     public static ValidationResult validateFiling(Filing filing) {
+        return validateFiling(filing, false);
+    }
+    
+    /**
+     * 验证并清理Filing对象
+     * @param holdingsPrevalidated 持仓已由StreamingHoldingValidator在解析时校验过，跳过逐行复核
+     */
+    public static ValidationResult validateFiling(Filing filing, boolean holdingsPrevalidated) {
         ValidationResult result = new ValidationResult();
         
         if (filing == null) {
@@ -71,10 +81,12 @@ public class DataValidator {
         }
         
         // 验证持仓数据
-        if (filing.getHoldings() != null) {
+        // getHoldings对列式持仓每次都会重新转换，只取一次
+        List<Holding> holdings = holdingsPrevalidated ? null : filing.getHoldings();
+        if (holdings != null) {
             List<Holding> validHoldings = new ArrayList<>();
-            for (int i = 0; i < filing.getHoldings().size(); i++) {
-                Holding holding = filing.getHoldings().get(i);
+            for (int i = 0; i < holdings.size(); i++) {
+                Holding holding = holdings.get(i);
                 ValidationResult holdingResult = validateHolding(holding, i);
                 result.addSubResult("Holding " + i, holdingResult);
                 
@@ -84,7 +96,7 @@ public class DataValidator {
             }
             filing.setHoldings(validHoldings);
             
-            if (validHoldings.isEmpty() && !filing.getHoldings().isEmpty()) {
+            if (validHoldings.isEmpty() && !holdings.isEmpty()) {
                 result.addWarning("All holdings were invalid and removed");
             }
         }
@@ -118,7 +130,9 @@ public class DataValidator {
             if (!CUSIP_PATTERN.matcher(cleanCusip).matches()) {
                 result.addError("Invalid CUSIP format: " + holding.getCusip());
             } else {
-                holding.setCusip(cleanCusip);
+                holding.setCusip(ISSUERS.cusip(cleanCusip));
+                // 名称关联到CUSIP的规范条目
+                holding.setNameOfIssuer(ISSUERS.issuerName(holding.getCusip(), holding.getNameOfIssuer()));
             }
         }
         
@@ -133,8 +147,8 @@ public class DataValidator {
         
         // 验证股数
         if (holding.getShares() == null) {
+            // 股数缺失时保留NULL，不能当作0股
             result.addWarning("Share count is missing");
-            holding.setShares(0L);
         } else if (holding.getShares() < 0) {
             result.addError("Share count cannot be negative: " + holding.getShares());
         } else if (holding.getShares() > 10000000000L) {
@@ -183,10 +197,11 @@ public class DataValidator {
     public static String cleanIssuerName(String name) {
         if (name == null) return null;
         
-        return name.trim()
+        String cleaned = name.trim()
                 .replaceAll("\\s+", " ")
                 .replaceAll("[\\x00-\\x1f\\x7f]", "") // 移除控制字符
                 .replaceAll("(?i)\\b(inc|corp|co|ltd|llc|company)\\b\\.?$", "$1"); // 标准化公司后缀
+        return ISSUERS.name(cleaned);
     }
     
     /**
@@ -0,0 +1,249 @@
+package com.company.sec13f.service.util;
+
+import com.company.sec13f.repository.model.HoldingRowBuffer;
+import com.company.sec13f.repository.util.IssuerDictionary;
+
+/**
+ * 流式持仓校验器
+ *
+ * 在解析器产出每一行持仓时就地校验并清理（与DataValidator.validateHolding的规则一致），
+ * 通过的行直接追加到列式缓冲区，结果只累加到计数器中，不为每行创建Holding、ValidationResult和错误消息字符串。
+ * 一个实例对应一份文档的一次解析，非线程安全。
+ */
+public class StreamingHoldingValidator {
+
+    /** 与holdings.name_of_issuer列长度一致 */
+    public static final int MAX_ISSUER_NAME_LENGTH = 500;
+
+    /** 1万亿美元，以分为单位 */
+    private static final long LARGE_VALUE_CENTS = 100000000000000L;
+    private static final long LARGE_SHARES = 10000000000L;
+    private static final IssuerDictionary ISSUERS = IssuerDictionary.getInstance();
+
+    private int seen;
+    private int accepted;
+
+    // 导致该行被丢弃的错误
+    private int missingIssuer;
+    private int issuerTooLong;
+    private int missingCusip;
+    private int invalidCusipFormat;
+    private int missingValue;
+    private int negativeValue;
+    private int negativeShares;
+
+    // 保留该行的警告
+    private int cusipCheckDigitMismatch;
+    private int missingShares;
+    private int unusuallyLargeValue;
+    private int unusuallyLargeShares;
+
+    /**
+     * 校验并清理一行持仓，通过时追加到rows
+     * @param valueInCents 市值（分），缺失时为 {@link HoldingRowBuffer#NULL}
+     * @param shareCount 股数，缺失时为 {@link HoldingRowBuffer#NULL}
+     * @return true表示该行有效，已追加到rows
+     */
+    public boolean accept(HoldingRowBuffer rows, String nameOfIssuer, String rawCusip,
+                          long valueInCents, long shareCount) {
+        seen++;
+        String issuer = cleanIssuerName(nameOfIssuer);
+        if (issuer == null || issuer.isEmpty()) {
+            missingIssuer++;
+            return false;
+        }
+        if (issuer.length() > MAX_ISSUER_NAME_LENGTH) {
+            issuerTooLong++;
+            return false;
+        }
+
+        String cusip = cleanCusip(rawCusip);
+        if (cusip == null || cusip.isEmpty()) {
+            missingCusip++;
+            return false;
+        }
+        if (!IssuerDictionary.isCusipFormat(cusip)) {
+            invalidCusipFormat++;
+            return false;
+        }
+        if (!hasValidCheckDigit(cusip)) {
+            cusipCheckDigitMismatch++;
+        }
+
+        if (valueInCents == HoldingRowBuffer.NULL) {
+            missingValue++;
+            return false;
+        }
+        if (valueInCents < 0) {
+            negativeValue++;
+            return false;
+        }
+        if (valueInCents > LARGE_VALUE_CENTS) {
+            unusuallyLargeValue++;
+        }
+
+        if (shareCount == HoldingRowBuffer.NULL) {
+            // 股数缺失时保留该行，写入数据库为NULL，不能当作0股
+            missingShares++;
+        } else if (shareCount < 0) {
+            negativeShares++;
+            return false;
+        } else if (shareCount > LARGE_SHARES) {
+            unusuallyLargeShares++;
+        }
+
+        addInterned(rows, issuer, cusip, valueInCents, shareCount);
+        accepted++;
+        return true;
+    }
+
+    /**
+     * 解析器输出一行持仓：有校验器时仅追加校验通过的行，否则不做校验直接追加
+     */
+    public static void emit(StreamingHoldingValidator validator, HoldingRowBuffer rows, String issuer, String cusip,
+                            long valueInCents, long shareCount) {
+        if (validator != null) {
+            validator.accept(rows, issuer, cusip, valueInCents, shareCount);
+            return;
+        }
+        addInterned(rows, issuer, cusip, valueInCents, shareCount);
+    }
+
+    /**
+     * 经发行人字典共享CUSIP和名称字符串后追加一行
+     */
+    private static void addInterned(HoldingRowBuffer rows, String issuer, String cusip,
+                                    long valueInCents, long shareCount) {
+        String canonicalCusip = ISSUERS.cusip(cusip);
+        rows.add(ISSUERS.issuerName(canonicalCusip, issuer), canonicalCusip, valueInCents, shareCount);
+    }
+
+    /**
+     * CUSIP校验位检查（第9位，"Modulus 10 Double Add Double"算法）
+     */
+    public static boolean hasValidCheckDigit(String cusip) {
+        if (cusip == null || cusip.length() != 9) {
+            return false;
+        }
+        int sum = 0;
+        for (int i = 0; i < 8; i++) {
+            int v = cusipCharValue(cusip.charAt(i));
+            if (v < 0) {
+                return false;
+            }
+            if ((i & 1) == 1) {
+                v *= 2;
+            }
+            sum += v / 10 + v % 10;
+        }
+        int checkDigit = (10 - sum % 10) % 10;
+        return cusip.charAt(8) == (char) ('0' + checkDigit);
+    }
+
+    private static int cusipCharValue(char c) {
+        if (c >= '0' && c <= '9') return c - '0';
+        if (c >= 'A' && c <= 'Z') return c - 'A' + 10;
+        if (c == '*') return 36;
+        if (c == '@') return 37;
+        if (c == '#') return 38;
+        return -1;
+    }
+
+    /**
+     * 已是9位大写字母数字时直接返回，否则按DataValidator.cleanCusip规则清理
+     */
+    private static String cleanCusip(String cusip) {
+        if (cusip == null || IssuerDictionary.isCusipFormat(cusip)) {
+            return cusip;
+        }
+        return DataValidator.cleanCusip(cusip);
+    }
+
+    /**
+     * 名称无需清理时直接返回，否则按DataValidator.cleanIssuerName规则清理
+     */
+    private static String cleanIssuerName(String name) {
+        if (name == null || needsCleaning(name)) {
+            return DataValidator.cleanIssuerName(name);
+        }
+        return name;
+    }
+
+    private static boolean needsCleaning(String name) {
+        int length = name.length();
+        if (length == 0 || name.charAt(length - 1) == '.') {
+            return true;
+        }
+        char previous = 'x';
+        for (int i = 0; i < length; i++) {
+            char c = name.charAt(i);
+            if (c < 0x20 || c == 0x7f) {
+                return true;
+            }
+            if (Character.isWhitespace(c) && (c != ' ' || i == 0 || i == length - 1 || previous == ' ')) {
+                return true;
+            }
+            previous = c;
+        }
+        return false;
+    }
+
+    public int getSeenCount() {
+        return seen;
+    }
+
+    public int getAcceptedCount() {
+        return accepted;
+    }
+
+    public int getRejectedCount() {
+        return seen - accepted;
+    }
+
+    public int getWarningCount() {
+        return cusipCheckDigitMismatch + missingShares + unusuallyLargeValue + unusuallyLargeShares;
+    }
+
+    public int getCusipCheckDigitMismatchCount() {
+        return cusipCheckDigitMismatch;
+    }
+
+    public int getMissingSharesCount() {
+        return missingShares;
+    }
+
+    public boolean hasRejections() {
+        return seen != accepted;
+    }
+
+    /**
+     * 汇总信息，仅列出非零计数
+     */
+    public String getSummary() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("Holdings validated: ").append(accepted).append('/').append(seen).append(" accepted");
+        appendCount(sb, "missing issuer", missingIssuer);
+        appendCount(sb, "issuer too long", issuerTooLong);
+        appendCount(sb, "missing CUSIP", missingCusip);
+        appendCount(sb, "invalid CUSIP format", invalidCusipFormat);
+        appendCount(sb, "missing value", missingValue);
+        appendCount(sb, "negative value", negativeValue);
+        appendCount(sb, "negative shares", negativeShares);
+        appendCount(sb, "CUSIP check digit mismatch (kept)", cusipCheckDigitMismatch);
+        appendCount(sb, "missing shares (kept NULL)", missingShares);
+        appendCount(sb, "unusually large value", unusuallyLargeValue);
+        appendCount(sb, "unusually large shares", unusuallyLargeShares);
+        return sb.toString();
+    }
+
+    private static void appendCount(StringBuilder sb, String label, int count) {
+        if (count > 0) {
+            sb.append(", ").append(label).append(": ").append(count);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return getSummary();
+    }
+}
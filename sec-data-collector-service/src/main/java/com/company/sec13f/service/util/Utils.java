@@ -26,4 +26,20 @@ public class Utils {
         }
         return str.trim().replaceAll("\\s+", " ");
     }
+    
+    /**
+     * CIK规范化：去掉首尾空白和前导0（至少保留一位），filings、companies和任务参数中的CIK格式可能不同
+     * @return 规范化后的CIK，为null或空白时返回null
+     */
+    public static String normalizeCik(String cik) {
+        if (cik == null) {
+            return null;
+        }
+        String trimmed = cik.trim();
+        int start = 0;
+        while (start < trimmed.length() - 1 && trimmed.charAt(start) == '0') {
+            start++;
+        }
+        return trimmed.isEmpty() ? null : trimmed.substring(start);
+    }
 }
@@ -0,0 +1,92 @@
+package com.company.sec13f.service;
+
+import com.company.sec13f.repository.entity.Company;
+import com.company.sec13f.service.FilingWindowScheduler.Cadence;
+import com.company.sec13f.service.FilingWindowScheduler.LagStats;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class FilingWindowSchedulerTest {
+
+    private static final Company BERKSHIRE = new Company("0001067983", "BERKSHIRE HATHAWAY INC");
+
+    // window-days 45, grace-days 5, lead-days 5, default-lag-days 40（与application.yml默认值一致）
+    private final FilingWindowScheduler scheduler =
+        new FilingWindowScheduler(null, null, null, null, true, true, 45, 5, 5, 40, 7, 30);
+
+    private static Map<String, LagStats> lagStats(String latestReportPeriod, Double avgLagDays) {
+        Map<String, LagStats> stats = new HashMap<>();
+        stats.put("1067983", new LagStats(latestReportPeriod, avgLagDays));
+        return stats;
+    }
+
+    private Cadence cadenceOn(String date, Map<String, LagStats> stats) {
+        return scheduler.cadenceOf(BERKSHIRE, stats, LocalDate.parse(date));
+    }
+
+    @Test
+    void quarterEndIsLastDayOfPreviousQuarter() {
+        assertEquals(LocalDate.of(2025, 12, 31), FilingWindowScheduler.quarterEndOf(LocalDate.of(2026, 1, 1)));
+        assertEquals(LocalDate.of(2025, 12, 31), FilingWindowScheduler.quarterEndOf(LocalDate.of(2026, 1, 15)));
+        assertEquals(LocalDate.of(2025, 12, 31), FilingWindowScheduler.quarterEndOf(LocalDate.of(2026, 3, 31)));
+        assertEquals(LocalDate.of(2026, 3, 31), FilingWindowScheduler.quarterEndOf(LocalDate.of(2026, 4, 1)));
+        assertEquals(LocalDate.of(2026, 3, 31), FilingWindowScheduler.quarterEndOf(LocalDate.of(2026, 4, 30)));
+        assertEquals(LocalDate.of(2026, 6, 30), FilingWindowScheduler.quarterEndOf(LocalDate.of(2026, 7, 1)));
+        assertEquals(LocalDate.of(2026, 6, 30), FilingWindowScheduler.quarterEndOf(LocalDate.of(2026, 7, 20)));
+        assertEquals(LocalDate.of(2026, 9, 30), FilingWindowScheduler.quarterEndOf(LocalDate.of(2026, 10, 1)));
+        assertEquals(LocalDate.of(2026, 9, 30), FilingWindowScheduler.quarterEndOf(LocalDate.of(2026, 12, 31)));
+    }
+
+    @Test
+    void outOfSeasonBeyondWindowAndGraceDaysIsSlow() {
+        Map<String, LagStats> none = Collections.emptyMap();
+        // 季度末2026-03-31 + 45 + 5 = 2026-05-20 仍在申报期内
+        assertEquals(Cadence.PEAK, cadenceOn("2026-05-20", none));
+        assertEquals(Cadence.SLOW, cadenceOn("2026-05-21", none));
+        assertEquals(Cadence.SLOW, cadenceOn("2026-06-30", none));
+    }
+
+    @Test
+    void companyThatAlreadyFiledForCurrentQuarterIsSlow() {
+        assertEquals(Cadence.SLOW, cadenceOn("2026-05-10", lagStats("2026-03-31", 30.0)));
+        assertEquals(Cadence.PEAK, cadenceOn("2026-05-10", lagStats("2025-12-31", 30.0)));
+    }
+
+    @Test
+    void defaultLagIsUsedWithoutHistory() {
+        Map<String, LagStats> none = Collections.emptyMap();
+        // default-lag-days 40 - lead-days 5 = 季度末后第35天起为PEAK
+        assertEquals(Cadence.DAILY, cadenceOn("2026-04-01", none));
+        assertEquals(Cadence.DAILY, cadenceOn("2026-05-04", none));
+        assertEquals(Cadence.PEAK, cadenceOn("2026-05-05", none));
+
+        // 有历史记录但没有平均延迟时同样使用默认值
+        assertEquals(Cadence.DAILY, cadenceOn("2026-05-04", lagStats("2025-12-31", null)));
+        assertEquals(Cadence.PEAK, cadenceOn("2026-05-05", lagStats("2025-12-31", null)));
+    }
+
+    @Test
+    void peakStartsAtExpectedLagMinusLeadDays() {
+        // 平均延迟20.4天取整为20，第15天起为PEAK
+        Map<String, LagStats> early = lagStats("2025-12-31", 20.4);
+        assertEquals(Cadence.DAILY, cadenceOn("2026-04-14", early));
+        assertEquals(Cadence.PEAK, cadenceOn("2026-04-15", early));
+
+        // 平均延迟不超过window-days：80天按45天计，第40天起为PEAK
+        Map<String, LagStats> late = lagStats("2025-12-31", 80.0);
+        assertEquals(Cadence.DAILY, cadenceOn("2026-05-09", late));
+        assertEquals(Cadence.PEAK, cadenceOn("2026-05-10", late));
+    }
+
+    @Test
+    void lagStatsMatchCikWithoutLeadingZeros() {
+        Company padded = new Company("  0001067983 ", "BERKSHIRE HATHAWAY INC");
+        assertEquals(Cadence.SLOW, scheduler.cadenceOf(padded, lagStats("2026-03-31", 30.0), LocalDate.of(2026, 5, 10)));
+    }
+}
@@ -0,0 +1,82 @@
+package com.company.sec13f.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RetryPolicyTest {
+
+    @Test
+    void delayGrowsExponentiallyWithoutJitter() {
+        RetryPolicy policy = new RetryPolicy(5, 60, 2.0, 3600, 0.0, 4.0);
+        assertEquals(60, policy.nextDelaySeconds(0, false));
+        assertEquals(120, policy.nextDelaySeconds(1, false));
+        assertEquals(480, policy.nextDelaySeconds(3, false));
+        assertEquals(3600, policy.nextDelaySeconds(10, false));
+    }
+
+    @Test
+    void rateLimitedDelayIsMultipliedAndStillCapped() {
+        RetryPolicy policy = new RetryPolicy(5, 60, 2.0, 3600, 0.0, 4.0);
+        assertEquals(240, policy.nextDelaySeconds(0, true));
+        assertEquals(1920, policy.nextDelaySeconds(3, true));
+        assertEquals(3600, policy.nextDelaySeconds(4, true));
+        assertEquals(3600, policy.nextDelaySeconds(10, true));
+    }
+
+    @Test
+    void jitterStaysWithinRangeAndNeverExceedsMaxDelay() {
+        RetryPolicy policy = new RetryPolicy(5, 100, 2.0, 3600, 0.5, 4.0);
+        Set<Long> cappedDelays = new HashSet<>();
+        for (int i = 0; i < 1000; i++) {
+            long delay = policy.nextDelaySeconds(0, false);
+            assertTrue(delay >= 50 && delay <= 150, "delay out of jitter range: " + delay);
+
+            long capped = policy.nextDelaySeconds(20, true);
+            assertTrue(capped >= 1800 && capped <= 3600, "capped delay out of range: " + capped);
+            cappedDelays.add(capped);
+        }
+        // 达到上限的重试仍然带抖动，不会全部等待恰好max-delay-seconds
+        assertTrue(cappedDelays.size() > 1, "capped delays do not vary: " + cappedDelays);
+    }
+
+    @Test
+    void cappedDelaysKeepJitterWithShippedScrapHoldingSettings() {
+        RetryPolicy policy = new RetryPolicy(5, 120, 3.0, 7200, 0.2, 4.0);
+        Set<Long> rateLimited = new HashSet<>();
+        Set<Long> ordinary = new HashSet<>();
+        for (int i = 0; i < 1000; i++) {
+            long delay = policy.nextDelaySeconds(3, true);
+            assertTrue(delay >= 5760 && delay <= 7200, "delay out of range: " + delay);
+            rateLimited.add(delay);
+            ordinary.add(policy.nextDelaySeconds(4, false));
+        }
+        assertTrue(rateLimited.size() > 1, "rate-limited delays do not vary: " + rateLimited);
+        assertTrue(ordinary.size() > 1, "capped delays do not vary: " + ordinary);
+    }
+
+    @Test
+    void canRetryUntilMaxRetries() {
+        RetryPolicy policy = new RetryPolicy(2, 60, 2.0, 3600, 0.2, 4.0);
+        assertTrue(policy.canRetry(0));
+        assertTrue(policy.canRetry(1));
+        assertFalse(policy.canRetry(2));
+        assertFalse(new RetryPolicy(-1, 60, 2.0, 3600, 0.2, 4.0).canRetry(0));
+    }
+
+    @Test
+    void invalidSettingsAreClamped() {
+        // 基础间隔至少1秒，倍数至少为1，上限不小于基础间隔
+        RetryPolicy policy = new RetryPolicy(3, 0, 0.5, 0, -1.0, 0.1);
+        assertEquals(1, policy.nextDelaySeconds(0, false));
+        assertEquals(1, policy.nextDelaySeconds(5, true));
+
+        RetryPolicy maxBelowBase = new RetryPolicy(3, 300, 2.0, 60, 0.0, 1.0);
+        assertEquals(300, maxBelowBase.nextDelaySeconds(3, false));
+    }
+}
@@ -0,0 +1,105 @@
+package com.company.sec13f.service;
+
+import com.company.sec13f.repository.enums.TaskType;
+import com.company.sec13f.service.TaskRetryPolicies.FailureKind;
+import com.company.sec13f.service.plugin.TaskResult;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.StandardEnvironment;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TaskRetryPoliciesTest {
+
+    private static TaskRetryPolicies policies(Map<String, Object> properties) {
+        StandardEnvironment environment = new StandardEnvironment();
+        environment.getPropertySources().addFirst(new MapPropertySource("test", properties));
+        return new TaskRetryPolicies(environment);
+    }
+
+    private static FailureKind classify(TaskResult result) {
+        return policies(new HashMap<>()).classify(result);
+    }
+
+    private static Exception secError(int status) {
+        return new IOException("SEC request failed with status: " + status);
+    }
+
+    @Test
+    void rateLimitStatusesAreRateLimited() {
+        assertEquals(FailureKind.RATE_LIMITED, classify(TaskResult.failure("抓取失败", secError(429))));
+        assertEquals(FailureKind.RATE_LIMITED, classify(TaskResult.failure("抓取失败", secError(403))));
+    }
+
+    @Test
+    void clientErrorStatusesArePermanent() {
+        assertEquals(FailureKind.PERMANENT, classify(TaskResult.failure("抓取失败", secError(400))));
+        assertEquals(FailureKind.PERMANENT, classify(TaskResult.failure("抓取失败", secError(404))));
+        assertEquals(FailureKind.PERMANENT, classify(TaskResult.failure("抓取失败", secError(410))));
+    }
+
+    @Test
+    void otherFailuresAreTransient() {
+        assertEquals(FailureKind.TRANSIENT, classify(TaskResult.failure("抓取失败", secError(500))));
+        assertEquals(FailureKind.TRANSIENT, classify(TaskResult.failure("Connection reset")));
+        assertEquals(FailureKind.TRANSIENT, classify(TaskResult.failure("抓取失败", new IOException("Read timed out"))));
+    }
+
+    @Test
+    void statusInMessageIsUsed() {
+        assertEquals(FailureKind.RATE_LIMITED, classify(TaskResult.failure("SEC request failed with status: 429")));
+    }
+
+    @Test
+    void statusFoundInCauseChainIsUsed() {
+        Exception wrapped = new RuntimeException("抓取持仓失败", new IllegalStateException("解析前请求失败", secError(404)));
+        assertEquals(FailureKind.PERMANENT, classify(TaskResult.failure("任务执行异常", wrapped)));
+
+        Exception rateLimited = new RuntimeException("wrapper", secError(429));
+        assertEquals(FailureKind.RATE_LIMITED, classify(TaskResult.failure("任务执行异常", rateLimited)));
+    }
+
+    @Test
+    void permanentFailureResultIsPermanentRegardlessOfStatus() {
+        assertEquals(FailureKind.PERMANENT, classify(TaskResult.permanentFailure("缺少CIK参数")));
+        assertEquals(FailureKind.PERMANENT, classify(TaskResult.permanentFailure("抓取失败", secError(429))));
+    }
+
+    @Test
+    void perTypePropertiesOverrideDefaults() {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("sec-collector.task.retry.default.max-retries", "4");
+        properties.put("sec-collector.task.retry.default.base-delay-seconds", "30");
+        properties.put("sec-collector.task.retry.default.jitter", "0");
+        properties.put("sec-collector.task.retry.SCRAP_HOLDING.max-retries", "7");
+        properties.put("sec-collector.task.retry.SCRAP_HOLDING.base-delay-seconds", "120");
+        properties.put("sec-collector.task.retry.SCRAP_HOLDING.multiplier", "3");
+        TaskRetryPolicies retryPolicies = policies(properties);
+
+        RetryPolicy scrapHolding = retryPolicies.policyFor(TaskType.SCRAP_HOLDING);
+        assertEquals(7, scrapHolding.getMaxRetries());
+        // 未按类型配置的jitter取default配置
+        assertEquals(120, scrapHolding.nextDelaySeconds(0, false));
+        assertEquals(360, scrapHolding.nextDelaySeconds(1, false));
+
+        RetryPolicy holdingMerge = retryPolicies.policyFor(TaskType.HOLDING_MERGE);
+        assertEquals(4, holdingMerge.getMaxRetries());
+        assertEquals(30, holdingMerge.nextDelaySeconds(0, false));
+        assertEquals(60, holdingMerge.nextDelaySeconds(1, false));
+    }
+
+    @Test
+    void builtInDefaultsApplyWithoutProperties() {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("sec-collector.task.retry.default.jitter", "0");
+        RetryPolicy policy = policies(properties).policyFor(TaskType.SCRAP_HOLDING);
+        assertEquals(3, policy.getMaxRetries());
+        assertEquals(60, policy.nextDelaySeconds(0, false));
+        assertEquals(240, policy.nextDelaySeconds(0, true));
+        assertEquals(3600, policy.nextDelaySeconds(10, false));
+    }
+}
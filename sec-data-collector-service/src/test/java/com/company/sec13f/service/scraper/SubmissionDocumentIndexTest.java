@@ -0,0 +1,193 @@
+package com.company.sec13f.service.scraper;
+
+import com.company.sec13f.service.scraper.SubmissionDocumentIndex.Section;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SubmissionDocumentIndexTest {
+
+    private static final String SUBMISSION =
+        "<SEC-DOCUMENT>0000950123-24-002518.txt : 20240214\n" +
+        "<SEC-HEADER>0000950123-24-002518.hdr.sgml : 20240214\n" +
+        "CONFORMED SUBMISSION TYPE:\t13F-HR\n" +
+        "CONFORMED PERIOD OF REPORT:\t20231231  \n" +
+        "EFFECTIVENESS DATE:\t\t20240214\n" +
+        "\tCOMPANY DATA:\t\n" +
+        "\t\tCENTRAL INDEX KEY:\t\t\t0001234567\n" +
+        "</SEC-HEADER>\n" +
+        "<DOCUMENT>\n" +
+        "<TYPE>13F-HR\n" +
+        "<TEXT>\n" +
+        "<XML>\n" +
+        "<edgarSubmission/>\n" +
+        "</XML>\n" +
+        "</TEXT>\n" +
+        "</DOCUMENT>\n" +
+        "<DOCUMENT>\n" +
+        "<TYPE>INFORMATION TABLE\n" +
+        "<TEXT>\n" +
+        "<XML>\n" +
+        "<informationTable>\n" +
+        "  <infoTable/>\n" +
+        "</informationTable>\n" +
+        "</XML>\n" +
+        "</TEXT>\n" +
+        "</DOCUMENT>\n" +
+        "<DOCUMENT>\n" +
+        "<TYPE>EX-99\n" +
+        "<TEXT>\n" +
+        "EFFECTIVENESS DATE: 20991231\n" +
+        "</TEXT>\n" +
+        "</DOCUMENT>\n" +
+        "</SEC-DOCUMENT>\n";
+
+    @Test
+    void findsDocumentsByType() {
+        SubmissionDocumentIndex index = SubmissionDocumentIndex.build(SUBMISSION);
+
+        assertEquals(3, index.documents().size());
+        assertEquals("13F-HR", index.documents().get(0).getType());
+        assertEquals("EX-99", index.documents().get(2).getType());
+
+        Section infoTable = index.findDocument("INFORMATION TABLE");
+        assertNotNull(infoTable);
+        assertEquals("INFORMATION TABLE", infoTable.getType());
+        assertEquals("<informationTable>\n  <infoTable/>\n</informationTable>\n", infoTable.xml().toString());
+        assertTrue(infoTable.document().toString().startsWith("<DOCUMENT>\n<TYPE>INFORMATION TABLE\n"));
+
+        Section exhibit = index.findDocument("EX-99");
+        assertNull(exhibit.xml());
+        assertEquals("EFFECTIVENESS DATE: 20991231\n", exhibit.text().toString());
+        assertNull(index.findDocument("13F-NT"));
+    }
+
+    @Test
+    void truncatedSubmissionKeepsUnclosedDocument() {
+        String truncated =
+            "<SEC-HEADER>0000950123-24-002518.hdr.sgml : 20240214\n" +
+            "</SEC-HEADER>\n" +
+            "<DOCUMENT>\n" +
+            "<TYPE>INFORMATION TABLE\n" +
+            "<TEXT>\n" +
+            "<XML>\n" +
+            "<informationTable>\n" +
+            "  <infoTable>";
+        SubmissionDocumentIndex index = SubmissionDocumentIndex.build(truncated);
+
+        assertEquals(1, index.documents().size());
+        Section infoTable = index.findDocument("INFORMATION TABLE");
+        assertEquals(truncated.length(), infoTable.getEnd());
+        assertEquals("<informationTable>\n  <infoTable>", infoTable.xml().toString());
+        assertEquals("<XML>\n<informationTable>\n  <infoTable>", infoTable.text().toString());
+    }
+
+    @Test
+    void headerWithoutDocumentIsWholeContent() {
+        String headerOnly =
+            "<SEC-HEADER>0000950123-24-002518.hdr.sgml : 20240214\n" +
+            "EFFECTIVENESS DATE:\t20240214\n" +
+            "</SEC-HEADER>\n";
+        SubmissionDocumentIndex index = SubmissionDocumentIndex.build(headerOnly);
+
+        assertTrue(index.documents().isEmpty());
+        assertNull(index.findDocument("INFORMATION TABLE"));
+        assertEquals(headerOnly, index.header().toString());
+        assertEquals("20240214", index.headerValue("EFFECTIVENESS DATE"));
+        assertNull(index.secDocumentFileName());
+    }
+
+    @Test
+    void headerValueTrimsWhitespaceAndAcceptsTrailingColon() {
+        SubmissionDocumentIndex index = SubmissionDocumentIndex.build(SUBMISSION);
+
+        assertEquals("20231231", index.headerValue("CONFORMED PERIOD OF REPORT"));
+        assertEquals("20231231", index.headerValue("CONFORMED PERIOD OF REPORT:"));
+        assertEquals("0001234567", index.headerValue("CENTRAL INDEX KEY"));
+        assertEquals("", index.headerValue("COMPANY DATA"));
+        assertNull(index.headerValue("FILED AS OF DATE"));
+        // 只在第一个DOCUMENT之前查找，正文中的同名字段不影响结果
+        assertEquals("20240214", index.headerValue("EFFECTIVENESS DATE"));
+    }
+
+    @Test
+    void secDocumentFileNameStripsTimestamp() {
+        assertEquals("0000950123-24-002518.txt", SubmissionDocumentIndex.build(SUBMISSION).secDocumentFileName());
+        assertEquals("0000950123-24-002518.txt",
+            SubmissionDocumentIndex.build("<SEC-DOCUMENT>  0000950123-24-002518.txt  \n").secDocumentFileName());
+        assertEquals("0000950123-24-002518.txt",
+            SubmissionDocumentIndex.build("  <SEC-DOCUMENT>0000950123-24-002518.txt : 20240214 : extra\n").secDocumentFileName());
+    }
+
+    @Test
+    void xmlMatchesLineByLineExtractionOnSyntheticSubmission() throws IOException {
+        String content = loadSyntheticSubmission();
+        Section infoTable = SubmissionDocumentIndex.build(content).findDocument("INFORMATION TABLE");
+
+        String expected = lineByLineInformationTableContent(content);
+        assertTrue(expected.contains("<infoTable>"));
+        assertEquals(expected, infoTable.xml().toString().trim());
+    }
+
+    /**
+     * 建立分段索引之前RealSECScraper.extractInformationTableContent的逐行提取逻辑，作为对照
+     */
+    private static String lineByLineInformationTableContent(String submissionContent) {
+        boolean inInfoTableDocument = false;
+        boolean inTextSection = false;
+        boolean inXmlSection = false;
+        StringBuilder xmlContent = new StringBuilder();
+
+        for (String line : submissionContent.split("\n")) {
+            String trimmedLine = line.trim();
+            if (trimmedLine.equals("<TYPE>INFORMATION TABLE")) {
+                inInfoTableDocument = true;
+                continue;
+            }
+            if (inInfoTableDocument) {
+                if (trimmedLine.equals("<TEXT>")) {
+                    inTextSection = true;
+                    continue;
+                }
+                if (inTextSection) {
+                    if (trimmedLine.equals("<XML>")) {
+                        inXmlSection = true;
+                        continue;
+                    }
+                    if (trimmedLine.equals("</XML>")) {
+                        break;
+                    }
+                    if (inXmlSection) {
+                        xmlContent.append(line).append("\n");
+                    }
+                }
+                if (trimmedLine.startsWith("<TYPE>") && !trimmedLine.equals("<TYPE>INFORMATION TABLE")) {
+                    break;
+                }
+            }
+        }
+        return xmlContent.toString().trim();
+    }
+
+    /**
+     * 语料检入在基准测试模块中，从模块目录（surefire的basedir）或项目根目录定位
+     */
+    private static String loadSyntheticSubmission() throws IOException {
+        String relative = "sec-data-collector-benchmark/src/main/resources/corpus/synthetic-submission-medium.txt";
+        Path workingDir = Paths.get(System.getProperty("basedir", System.getProperty("user.dir"))).toAbsolutePath();
+        Path corpus = workingDir.resolve(relative);
+        if (!Files.exists(corpus)) {
+            corpus = workingDir.getParent().resolve(relative);
+        }
+        return new String(Files.readAllBytes(corpus), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,130 @@
+package com.company.sec13f.service.util;
+
+import com.company.sec13f.repository.model.HoldingRowBuffer;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StreamingHoldingValidatorTest {
+
+    @Test
+    void knownCusipsHaveValidCheckDigits() {
+        assertTrue(StreamingHoldingValidator.hasValidCheckDigit("037833100"));
+        assertTrue(StreamingHoldingValidator.hasValidCheckDigit("594918104"));
+    }
+
+    @Test
+    void singleWrongDigitFailsCheckDigit() {
+        assertFalse(StreamingHoldingValidator.hasValidCheckDigit("037833101"));
+        assertFalse(StreamingHoldingValidator.hasValidCheckDigit("037833200"));
+        assertFalse(StreamingHoldingValidator.hasValidCheckDigit("594918105"));
+    }
+
+    @Test
+    void specialCharactersUseTheirCusipValues() {
+        // * = 36, @ = 37, # = 38
+        assertTrue(StreamingHoldingValidator.hasValidCheckDigit("1234567*0"));
+        assertTrue(StreamingHoldingValidator.hasValidCheckDigit("1234567@8"));
+        assertTrue(StreamingHoldingValidator.hasValidCheckDigit("1234567#6"));
+        assertTrue(StreamingHoldingValidator.hasValidCheckDigit("12345*@#7"));
+        assertFalse(StreamingHoldingValidator.hasValidCheckDigit("1234567*8"));
+    }
+
+    @Test
+    void malformedCusipsFailCheckDigit() {
+        assertFalse(StreamingHoldingValidator.hasValidCheckDigit(null));
+        assertFalse(StreamingHoldingValidator.hasValidCheckDigit("03783310"));
+        assertFalse(StreamingHoldingValidator.hasValidCheckDigit("0378331000"));
+        assertFalse(StreamingHoldingValidator.hasValidCheckDigit("03783-100"));
+    }
+
+    @Test
+    void validRowIsAcceptedAndInterned() {
+        StreamingHoldingValidator validator = new StreamingHoldingValidator();
+        HoldingRowBuffer rows = new HoldingRowBuffer();
+
+        assertTrue(validator.accept(rows, "APPLE INC", "037833100", 123456L, 1000L));
+        assertTrue(validator.accept(rows, "APPLE INC", " 037833100 ", 500L, 10L));
+
+        assertEquals(2, rows.size());
+        assertEquals("037833100", rows.getCusip(1));
+        assertSame(rows.getCusip(0), rows.getCusip(1));
+        assertSame(rows.getIssuer(0), rows.getIssuer(1));
+        assertEquals(2, validator.getAcceptedCount());
+        assertEquals(0, validator.getWarningCount());
+        assertFalse(validator.hasRejections());
+    }
+
+    @Test
+    void missingSharesKeepRowAsNull() {
+        StreamingHoldingValidator validator = new StreamingHoldingValidator();
+        HoldingRowBuffer rows = new HoldingRowBuffer();
+
+        assertTrue(validator.accept(rows, "MICROSOFT CORP", "594918104", 100L, HoldingRowBuffer.NULL));
+
+        assertEquals(1, rows.size());
+        assertFalse(rows.hasShares(0));
+        assertEquals(1, validator.getMissingSharesCount());
+        assertEquals(1, validator.getWarningCount());
+        assertEquals(0, validator.getRejectedCount());
+    }
+
+    @Test
+    void negativeValueOrSharesRejectRow() {
+        StreamingHoldingValidator validator = new StreamingHoldingValidator();
+        HoldingRowBuffer rows = new HoldingRowBuffer();
+
+        assertFalse(validator.accept(rows, "APPLE INC", "037833100", -1L, 10L));
+        assertFalse(validator.accept(rows, "APPLE INC", "037833100", 100L, -10L));
+
+        assertTrue(rows.isEmpty());
+        assertEquals(2, validator.getRejectedCount());
+        assertTrue(validator.hasRejections());
+        assertTrue(validator.getSummary().contains("negative value: 1"));
+        assertTrue(validator.getSummary().contains("negative shares: 1"));
+    }
+
+    @Test
+    void badCheckDigitIsCountedButRowKept() {
+        StreamingHoldingValidator validator = new StreamingHoldingValidator();
+        HoldingRowBuffer rows = new HoldingRowBuffer();
+
+        assertTrue(validator.accept(rows, "APPLE INC", "037833101", 100L, 10L));
+
+        assertEquals(1, rows.size());
+        assertEquals(1, validator.getCusipCheckDigitMismatchCount());
+        assertEquals(1, validator.getWarningCount());
+        assertEquals(0, validator.getRejectedCount());
+    }
+
+    @Test
+    void missingOrInvalidFieldsRejectRow() {
+        StreamingHoldingValidator validator = new StreamingHoldingValidator();
+        HoldingRowBuffer rows = new HoldingRowBuffer();
+
+        assertFalse(validator.accept(rows, "   ", "037833100", 100L, 10L));
+        assertFalse(validator.accept(rows, "APPLE INC", null, 100L, 10L));
+        assertFalse(validator.accept(rows, "APPLE INC", "03783310", 100L, 10L));
+        assertFalse(validator.accept(rows, "APPLE INC", "037833100", HoldingRowBuffer.NULL, 10L));
+
+        assertTrue(rows.isEmpty());
+        assertEquals(4, validator.getSeenCount());
+        assertEquals(4, validator.getRejectedCount());
+    }
+
+    @Test
+    void emitWithoutValidatorAppendsUnchecked() {
+        HoldingRowBuffer rows = new HoldingRowBuffer();
+        StreamingHoldingValidator.emit(null, rows, "APPLE INC", "037833100", -1L, HoldingRowBuffer.NULL);
+        assertEquals(1, rows.size());
+        assertEquals(-1L, rows.getValueCents(0));
+
+        StreamingHoldingValidator validator = new StreamingHoldingValidator();
+        StreamingHoldingValidator.emit(validator, rows, "APPLE INC", "037833100", -1L, HoldingRowBuffer.NULL);
+        assertEquals(1, rows.size());
+        assertEquals(1, validator.getRejectedCount());
+    }
+}
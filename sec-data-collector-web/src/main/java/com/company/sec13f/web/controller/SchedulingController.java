@@ -1,6 +1,9 @@
 package com.company.sec13f.web.controller;
 
-// Temporarily disabled: import com.company.sec13f.service.ScheduledScrapingService;
+import com.company.sec13f.service.BatchEnqueueResult;
+import com.company.sec13f.service.FilingWindowScheduler;
+import com.company.sec13f.service.ScheduledScrapingService;
+import com.company.sec13f.service.SchedulerLeadership;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -16,12 +19,17 @@ import java.util.Map;
 @CrossOrigin(origins = "*")
 public class SchedulingController {
     
-    // Temporarily disabled service dependency
-    // private final ScheduledScrapingService scheduledService;
+    private final ScheduledScrapingService scheduledService;
+    private final FilingWindowScheduler filingWindowScheduler;
+    private final SchedulerLeadership leadership;
     
-    // @Autowired
-    public SchedulingController() {
-        // this.scheduledService = scheduledService;
+    @Autowired
+    public SchedulingController(ScheduledScrapingService scheduledService,
+                                FilingWindowScheduler filingWindowScheduler,
+                                SchedulerLeadership leadership) {
+        this.scheduledService = scheduledService;
+        this.filingWindowScheduler = filingWindowScheduler;
+        this.leadership = leadership;
     }
     
     /**
@@ -31,12 +39,14 @@ public class SchedulingController {
     @PostMapping("/trigger-auto-scraping")
     public ResponseEntity<?> triggerAutoScraping() {
         try {
-            // 简化实现：直接返回成功响应
-            // scheduledService.performScheduledScraping();
+            BatchEnqueueResult result = scheduledService.performScheduledScraping();
             
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
             response.put("message", "Auto scraping triggered successfully");
+            response.put("requested", result.getRequested());
+            response.put("created", result.getCreated());
+            response.put("skippedActive", result.getSkippedActive());
             response.put("timestamp", System.currentTimeMillis());
             
             return ResponseEntity.ok(response);
@@ -54,10 +64,12 @@ public class SchedulingController {
     @PostMapping("/retry-failed")
     public ResponseEntity<?> retryFailedTasks() {
         try {
-            // Temporarily disabled service call
+            int retried = scheduledService.retryFailedTasks();
             Map<String, Object> result = new HashMap<>();
             result.put("success", true);
-            result.put("message", "Manual retry temporarily disabled");
+            result.put("message", "Failed tasks requeued");
+            result.put("retried", retried);
+            result.put("timestamp", System.currentTimeMillis());
             return ResponseEntity.ok(result);
             
         } catch (Exception e) {
@@ -75,7 +87,10 @@ public class SchedulingController {
         try {
             Map<String, Object> status = new HashMap<>();
             status.put("success", true);
-            status.put("schedulingEnabled", true);
+            status.put("schedulingEnabled", scheduledService.isEnabled());
+            status.put("nodeId", leadership.getNodeId());
+            status.put("leaderId", leadership.getLeaderId());
+            status.put("leader", leadership.isLeader());
             status.put("message", "Scheduling service is running");
             status.put("timestamp", System.currentTimeMillis());
             
@@ -87,6 +102,24 @@ public class SchedulingController {
         }
     }
     
+    /**
+     * 获取季度申报窗口状态
+     * GET /api/scheduling/filing-window
+     */
+    @GetMapping("/filing-window")
+    public ResponseEntity<?> getFilingWindowStatus() {
+        try {
+            Map<String, Object> status = new HashMap<>(filingWindowScheduler.getStatus());
+            status.put("success", true);
+            status.put("timestamp", System.currentTimeMillis());
+            return ResponseEntity.ok(status);
+            
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError()
+                .body(createErrorResponse("Failed to get filing window status: " + e.getMessage()));
+        }
+    }
+    
     /**
      * 创建错误响应
      */
@@ -1,15 +1,23 @@
 package com.company.sec13f.web.controller;
 
+import com.company.sec13f.repository.entity.Company;
 import com.company.sec13f.repository.entity.Task;
+import com.company.sec13f.repository.enums.TaskStatus;
 import com.company.sec13f.repository.enums.TaskType;
-import com.company.sec13f.repository.mapper.TaskMapper;
+import com.company.sec13f.repository.mapper.CompanyMapper;
+import com.company.sec13f.repository.param.TaskQueryParam;
+import com.company.sec13f.service.BatchEnqueueResult;
+import com.company.sec13f.service.TaskPage;
 import com.company.sec13f.service.TaskService;
+import com.company.sec13f.service.plugin.TaskParameters;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -25,12 +33,14 @@ import java.util.Map;
 public class ScrapingController {
     
     private static final Logger logger = LoggerFactory.getLogger(ScrapingController.class);
+    private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
     
     @Autowired
-    private TaskMapper taskMapper;
+    private TaskService taskService;
     
     @Autowired
-    private TaskService taskService;
+    private CompanyMapper companyMapper;
     
     /**
      * 创建数据爬取任务 - 统一使用TaskService调度
@@ -74,17 +84,73 @@ public class ScrapingController {
     }
     
     /**
-     * 获取所有任务状态 - 简化版本，避开MyBatis问题
-     * GET /api/scraping/tasks
+     * 批量创建数据爬取任务
+     * POST /api/scraping/scrape-batch            请求体: [{"cik":"0001067983","companyName":"..."}, ...]
+     * POST /api/scraping/scrape-batch?allActive=true  为所有启用的公司创建任务
+     * 已有未结束任务的CIK会被跳过
+     */
+    @PostMapping("/scrape-batch")
+    public ResponseEntity<?> scrapeBatch(
+            @RequestBody(required = false) List<Company> companies,
+            @RequestParam(defaultValue = "false") boolean allActive) {
+        try {
+            List<Company> targets = allActive ? companyMapper.selectActiveCompanies() : companies;
+            if (targets == null || targets.isEmpty()) {
+                return ResponseEntity.badRequest()
+                    .body(createErrorResponse(allActive ? "No active companies found" : "Company list is required"));
+            }
+            
+            BatchEnqueueResult result = taskService.createScrapingTasks(targets);
+            
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("requested", result.getRequested());
+            response.put("created", result.getCreated());
+            response.put("skippedDuplicates", result.getSkippedDuplicates());
+            response.put("skippedActive", result.getSkippedActive());
+            response.put("taskIds", result.getTaskIds());
+            response.put("message", "已创建 " + result.getCreated() + " 个任务，将按线程池容量陆续执行");
+            
+            logger.info("📝 批量创建抓取任务 (allActive={}): {}", allActive, result);
+            return ResponseEntity.ok(response);
+            
+        } catch (Exception e) {
+            logger.error("❌ Failed to create batch scraping tasks", e);
+            return ResponseEntity.internalServerError()
+                .body(createErrorResponse("Failed to create batch scraping tasks: " + e.getMessage()));
+        }
+    }
+    
+    /**
+     * 分页查询任务，按创建顺序倒序
+     * GET /api/scraping/tasks?taskType=SCRAP_HOLDING&status=FAILED&createdFrom=2024-01-01T00:00:00&limit=100
+     * 响应体为任务数组；还有更多任务时，响应头 X-Next-Cursor 为下一页的cursor参数
      */
     @GetMapping("/tasks")
-    public ResponseEntity<?> getAllTasks() {
+    public ResponseEntity<?> getAllTasks(
+            @RequestParam(required = false) TaskType taskType,
+            @RequestParam(required = false) TaskStatus status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdFrom,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdTo,
+            @RequestParam(required = false) Long cursor,
+            @RequestParam(defaultValue = "0") int limit) {
         try {
-            // 直接使用SQL查询获取任务数据，避开MyBatis枚举映射问题
-            List<Map<String, Object>> tasks = getTasksDirectly();
-            return ResponseEntity.ok(tasks);
+            TaskPage page = taskService.listTasks(
+                new TaskQueryParam(taskType, status, createdFrom, createdTo, cursor, limit));
+            
+            List<Map<String, Object>> tasks = new ArrayList<>(page.getTasks().size());
+            for (Task task : page.getTasks()) {
+                tasks.add(toTaskMap(task));
+            }
+            
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+            if (page.hasMore()) {
+                response.header(NEXT_CURSOR_HEADER, String.valueOf(page.getNextCursor()));
+            }
+            return response.body(tasks);
             
         } catch (Exception e) {
+            logger.error("❌ Failed to get tasks", e);
             return ResponseEntity.internalServerError()
                 .body(createErrorResponse("Failed to get tasks: " + e.getMessage()));
         }
@@ -111,79 +177,53 @@ public class ScrapingController {
     
     
     /**
-     * 使用MyBatis获取任务列表
+     * 将任务转换为列表接口的Map格式，保持原有API兼容性
      */
-    private List<Map<String, Object>> getTasksDirectly() {
-        List<Map<String, Object>> taskMaps = new ArrayList<>();
+    private Map<String, Object> toTaskMap(Task task) {
+        Map<String, Object> taskMap = new HashMap<>();
+        taskMap.put("id", task.getId());
+        taskMap.put("taskId", task.getTaskId());
+        taskMap.put("taskType", task.getTaskType().name());
+        taskMap.put("status", task.getStatus().name());
+        taskMap.put("message", task.getMessage());
+        taskMap.put("retryTimes", task.getRetryTimes() != null ? task.getRetryTimes() : 0);
+        
+        // 从任务参数中解析CIK和公司名称
+        String cik = "";
+        String companyName = "";
         try {
-            // 使用MyBatis查询所有任务
-            List<Task> tasks = taskMapper.selectAll();
-            
-            // 转换为Map格式，保持原有API兼容性
-            DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
-            
-            for (Task task : tasks) {
-                Map<String, Object> taskMap = new HashMap<>();
-                taskMap.put("taskId", task.getTaskId());
-                taskMap.put("taskType", task.getTaskType().name());
-                taskMap.put("status", task.getStatus().name());
-                taskMap.put("message", task.getMessage());
-                taskMap.put("retryTimes", task.getRetryTimes() != null ? task.getRetryTimes() : 0);
-                
-                // 从任务参数中解析CIK和公司名称
-                String cik = "";
-                String companyName = "";
-                try {
-                    if (task.getTaskParameters() != null) {
-                        // 简单的JSON解析，提取cik和companyName
-                        String params = task.getTaskParameters();
-                        if (params.contains("cik")) {
-                            int cikStart = params.indexOf("\"cik\":\"") + 7;
-                            int cikEnd = params.indexOf("\"", cikStart);
-                            if (cikEnd > cikStart) {
-                                cik = params.substring(cikStart, cikEnd);
-                            }
-                        }
-                        if (params.contains("companyName")) {
-                            int nameStart = params.indexOf("\"companyName\":\"") + 15;
-                            int nameEnd = params.indexOf("\"", nameStart);
-                            if (nameEnd > nameStart) {
-                                companyName = params.substring(nameStart, nameEnd);
-                            }
-                        }
-                    }
-                } catch (Exception e) {
-                    logger.warn("Failed to parse task parameters for task: " + task.getTaskId());
-                }
-                
-                taskMap.put("cik", cik);
-                taskMap.put("companyName", companyName);
-                taskMap.put("savedFilings", 0); // 暂时设为0，后续可以从数据库查询实际数量
-                
-                // 处理时间字段
-                if (task.getStartTime() != null) {
-                    taskMap.put("startTime", task.getStartTime().format(formatter));
-                }
-                
-                if (task.getEndTime() != null) {
-                    taskMap.put("endTime", task.getEndTime().format(formatter));
-                }
-                
-                if (task.getCreatedAt() != null) {
-                    taskMap.put("createdAt", task.getCreatedAt().format(formatter));
-                }
-                
-                // 计算持续时间
-                taskMap.put("durationSeconds", task.getDurationSeconds());
-                
-                taskMaps.add(taskMap);
+            TaskParameters params = new TaskParameters(task.getTaskParameters());
+            if (params.getString("cik") != null) {
+                cik = params.getString("cik");
+            }
+            if (params.getString("companyName") != null) {
+                companyName = params.getString("companyName");
             }
-            
         } catch (Exception e) {
-            logger.error("Failed to get tasks using MyBatis", e);
+            logger.warn("Failed to parse task parameters for task: " + task.getTaskId());
+        }
+        
+        taskMap.put("cik", cik);
+        taskMap.put("companyName", companyName);
+        taskMap.put("savedFilings", 0); // 暂时设为0，后续可以从数据库查询实际数量
+        
+        // 处理时间字段
+        if (task.getStartTime() != null) {
+            taskMap.put("startTime", task.getStartTime().format(DATE_TIME_FORMATTER));
+        }
+        
+        if (task.getEndTime() != null) {
+            taskMap.put("endTime", task.getEndTime().format(DATE_TIME_FORMATTER));
         }
         
-        return taskMaps;
+        if (task.getCreatedAt() != null) {
+            taskMap.put("createdAt", task.getCreatedAt().format(DATE_TIME_FORMATTER));
+        }
+        
+        // 计算持续时间
+        taskMap.put("durationSeconds", task.getDurationSeconds());
+        
+        return taskMap;
     }
     
     /**
@@ -191,13 +231,12 @@ public class ScrapingController {
      */
     private Map<String, Object> getTaskDirectly(String taskId) {
         try {
-            // 使用MyBatis查询任务
-            Task task = taskMapper.selectByTaskId(taskId);
+            // 查询任务（已归档的任务从归档表读取）
+            Task task = taskService.getTaskStatus(taskId);
             
             if (task != null) {
                 // 转换为Map格式，保持原有API兼容性
                 Map<String, Object> taskMap = new HashMap<>();
-                DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
                 
                 taskMap.put("taskId", task.getTaskId());
                 taskMap.put("taskType", task.getTaskType().name());
@@ -207,15 +246,15 @@ public class ScrapingController {
                 
                 // 处理时间字段
                 if (task.getStartTime() != null) {
-                    taskMap.put("startTime", task.getStartTime().format(formatter));
+                    taskMap.put("startTime", task.getStartTime().format(DATE_TIME_FORMATTER));
                 }
                 
                 if (task.getEndTime() != null) {
-                    taskMap.put("endTime", task.getEndTime().format(formatter));
+                    taskMap.put("endTime", task.getEndTime().format(DATE_TIME_FORMATTER));
                 }
                 
                 if (task.getCreatedAt() != null) {
-                    taskMap.put("createdAt", task.getCreatedAt().format(formatter));
+                    taskMap.put("createdAt", task.getCreatedAt().format(DATE_TIME_FORMATTER));
                 }
                 
                 // 计算持续时间
@@ -1,12 +1,15 @@
 package com.company.sec13f.web.controller;
 
+import com.company.sec13f.repository.enums.TaskStatus;
 import com.company.sec13f.repository.mapper.TaskMapper;
+import com.company.sec13f.service.TaskMetrics;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.TreeMap;
 
 /**
  * 任务统计和管理控制器
@@ -19,29 +22,38 @@ public class TaskController {
     @Autowired
     private TaskMapper taskMapper;
     
+    @Autowired
+    private TaskMetrics taskMetrics;
+    
     /**
-     * 获取任务统计信息
+     * 获取任务统计信息（tasks表中的任务，已归档的任务不计入）
      * GET /api/tasks/stats
      */
     @GetMapping("/stats")
     public ResponseEntity<?> getTaskStats() {
         try {
-            Map<String, Object> stats = new HashMap<>();
-            
-            // 获取总任务数
-            long totalTasks = taskMapper.countAll();
-            
-            // 获取各状态的任务数量（基于TaskStatus枚举）
-            long pendingTasks = taskMapper.countByStatus("PENDING");
-            long retryTasks = taskMapper.countByStatus("RETRY");
-            long completedTasks = taskMapper.countByStatus("COMPLETED");
-            long failedTasks = taskMapper.countByStatus("FAILED");
+            // 一次分组查询得到各状态、各类型的任务数
+            Map<String, Long> countsByStatus = new HashMap<>();
+            Map<String, Map<String, Long>> countsByType = new TreeMap<>();
+            long totalTasks = 0;
+            for (Map<String, Object> row : taskMapper.countGroupByStatusAndType()) {
+                String status = String.valueOf(row.get("status"));
+                String taskType = String.valueOf(row.get("task_type"));
+                long count = ((Number) row.get("task_count")).longValue();
+                countsByStatus.merge(status, count, Long::sum);
+                countsByType.computeIfAbsent(taskType, type -> new TreeMap<>()).put(status, count);
+                totalTasks += count;
+            }
             
+            Map<String, Object> stats = new HashMap<>();
             stats.put("totalTasks", totalTasks);
-            stats.put("pendingTasks", pendingTasks);
-            stats.put("retryTasks", retryTasks);
-            stats.put("completedTasks", completedTasks);
-            stats.put("failedTasks", failedTasks);
+            stats.put("pendingTasks", countsByStatus.getOrDefault(TaskStatus.PENDING.name(), 0L));
+            stats.put("waitingTasks", countsByStatus.getOrDefault(TaskStatus.WAITING.name(), 0L));
+            stats.put("runningTasks", countsByStatus.getOrDefault(TaskStatus.RUNNING.name(), 0L));
+            stats.put("retryTasks", countsByStatus.getOrDefault(TaskStatus.RETRY.name(), 0L));
+            stats.put("completedTasks", countsByStatus.getOrDefault(TaskStatus.COMPLETED.name(), 0L));
+            stats.put("failedTasks", countsByStatus.getOrDefault(TaskStatus.FAILED.name(), 0L));
+            stats.put("byType", countsByType);
             
             return ResponseEntity.ok(stats);
             
@@ -51,6 +63,20 @@ public class TaskController {
         }
     }
     
+    /**
+     * 获取本节点自启动以来各任务类型的排队时间、执行时间、结果和重试统计（毫秒）
+     * GET /api/tasks/metrics
+     */
+    @GetMapping("/metrics")
+    public ResponseEntity<?> getTaskMetrics() {
+        try {
+            return ResponseEntity.ok(taskMetrics.snapshot());
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError()
+                .body(createErrorResponse("Failed to get task metrics: " + e.getMessage()));
+        }
+    }
+    
     /**
      * 创建错误响应
      */